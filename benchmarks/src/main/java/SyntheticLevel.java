@@ -0,0 +1,137 @@
+import bagel.util.Point;
+import shadowdefend.benchmarks.LevelFixture;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The first level of the game with a synthetic load of enemies spread evenly along the path and towers spread over
+ * the map. Lives and money are topped up so the load is not cut short by the player dying or going broke.
+ */
+public class SyntheticLevel implements LevelFixture {
+    /* Constants */
+    private static final int GRID_SIZE = 32;
+    private static final int GRID_TOP = 100;
+    private static final int GRID_BOTTOM = Simulation.HEIGHT - 25;
+    private static final int GRID_STRIDE = 97;
+    private static final int PLENTY = 1_000_000;
+
+    /* Attributes */
+    private final Simulation simulation;
+    private final Level level;
+
+    /**
+     * Creates the level and fills it
+     * @param enemies the number of enemies to add
+     * @param towers the number of towers to add
+     * @param enemyArrays whether the level keeps the state of its enemies in an EnemyStore
+     * @param parallel whether the level splits its tick phases over the common fork-join pool
+     * @throws IOException when the level files cannot be found
+     */
+    public SyntheticLevel(int enemies, int towers, boolean enemyArrays, boolean parallel) throws IOException {
+        simulation = new Simulation(enemyArrays, parallel);
+        level = simulation.getGameLevel();
+        simulation.addMoney(PLENTY);
+        simulation.deductLives(-PLENTY);
+        addTowers(towers);
+        addEnemies(enemies);
+        simulation.startWave();
+    }
+
+    /**
+     * Places towers on a grid over the map, visiting the grid cells in a scattered order so that small numbers of
+     * towers are not all bunched up in one corner
+     * @param towers the number of towers to place
+     */
+    private void addTowers(int towers){
+        int columns = Simulation.WIDTH / GRID_SIZE;
+        int rows = (GRID_BOTTOM - GRID_TOP) / GRID_SIZE;
+        int cells = columns * rows;
+        for (int i = 0; i < towers; i++){
+            int cell = (int) ((long) i * GRID_STRIDE % cells);
+            Point point = new Point((cell % columns) * GRID_SIZE + GRID_SIZE / 2.0,
+                    GRID_TOP + (cell / columns) * GRID_SIZE + GRID_SIZE / 2.0);
+            String type = i % 2 == 0 ? Archetypes.TANK : Archetypes.SUPER_TANK;
+            simulation.placeDefence(new Defence(point, Archetypes.standard().getDefence(type)));
+        }
+    }
+
+    /**
+     * Adds enemies spread evenly along the polyline, cycling through the enemy types
+     * @param enemies the number of enemies to add
+     */
+    private void addEnemies(int enemies){
+        List<Point> polyline = level.getMap().getAllPolylines().get(0);
+        int segments = polyline.size() - 1;
+        for (int i = 0; i < enemies; i++){
+            double along = (double) i * segments / enemies;
+            int segment = (int) along;
+            double fraction = along - segment;
+            Point start = polyline.get(segment);
+            Point end = polyline.get(segment + 1);
+            Point location = new Point(start.x + (end.x - start.x) * fraction, start.y + (end.y - start.y) * fraction);
+            // Slicers, super slicers and mega slicers, the first three enemy archetypes
+            EnemyArchetype type = Archetypes.standard().getEnemy(i % 3);
+            level.getLevelEnemy().add(level.obtainEnemy(type, segment, location));
+        }
+    }
+
+    @Override
+    public void moveEnemies() {
+        level.moveEnemies();
+    }
+
+    @Override
+    public void defenceAttack() {
+        level.defenceAttack();
+    }
+
+    @Override
+    public void removeCompletedSprites() {
+        level.removeCompletedSprites(simulation);
+    }
+
+    @Override
+    public void tick() {
+        try {
+            simulation.tick();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void killEvery(int n) {
+        List<Enemy> enemies = level.getLevelEnemy();
+        for (int i = 0; i < enemies.size(); i += n){
+            enemies.get(i).deductHealth(PLENTY);
+        }
+    }
+
+    @Override
+    public int enemyCount() {
+        return level.getLevelEnemy().size();
+    }
+
+    @Override
+    public byte[] saveSnapshot() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            simulation.saveSnapshot(bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public void loadSnapshot(byte[] snapshot) {
+        try {
+            simulation.loadSnapshot(new ByteArrayInputStream(snapshot));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+import shadowdefend.benchmarks.WaveFixture;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A wave script generated in the same shape as res/levels/waves.txt (spawns separated by delays) with a given number
+ * of waves. Scripts are written once per size and reused.
+ */
+public class SyntheticWaves implements WaveFixture {
+    /* Constants */
+    private static final String[] ENEMY_TYPES = {"slicer", "superslicer", "megaslicer", "apexslicer"};
+    private static final Map<Integer, File> SCRIPTS = new HashMap<>();
+
+    /* Attributes */
+    private final Wave wave;
+
+    /**
+     * Loads a generated script
+     * @param waves the number of waves in the script
+     * @throws IOException when the script cannot be written or read
+     */
+    public SyntheticWaves(int waves) throws IOException {
+        wave = new Wave(script(waves).getPath());
+    }
+
+    /**
+     * Returns the script with the given number of waves, writing it to a temporary file the first time
+     * @param waves the number of waves
+     * @return the script file
+     * @throws IOException when the script cannot be written
+     */
+    private static synchronized File script(int waves) throws IOException {
+        File file = SCRIPTS.get(waves);
+        if (file == null){
+            file = File.createTempFile("waves-" + waves + "-", ".txt");
+            file.deleteOnExit();
+            try (PrintWriter writer = new PrintWriter(file)){
+                for (int i = 1; i <= waves; i++){
+                    writer.println(i + ",spawn," + (10 + i % 40) + "," + ENEMY_TYPES[i % ENEMY_TYPES.length] + ",50");
+                    writer.println(i + ",delay,300");
+                    writer.println(i + ",spawn," + (5 + i % 20) + "," + ENEMY_TYPES[(i + 1) % ENEMY_TYPES.length]
+                            + ",100");
+                }
+            }
+            SCRIPTS.put(waves, file);
+        }
+        return file;
+    }
+
+    @Override
+    public int drain() {
+        int events = 0;
+        while (!wave.allWavesFinished()){
+            while (wave.hasPendingActions()){
+                wave.processWave();
+                events++;
+            }
+            try {
+                wave.parseWave();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            events++;
+        }
+        return events;
+    }
+}
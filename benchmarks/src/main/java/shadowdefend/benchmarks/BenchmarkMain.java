@@ -0,0 +1,36 @@
+package shadowdefend.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the benchmarks, saving the results as JSON unless told otherwise on the command line
+ */
+public final class BenchmarkMain {
+    /* Constants */
+    private static final String RESULT_FORMAT = "-rf";
+    private static final String RESULT_FILE = "-rff";
+    private static final String DEFAULT_RESULT_FILE = "benchmarks/target/jmh-result.json";
+
+    private BenchmarkMain(){
+    }
+
+    /**
+     * Entry point for the benchmarks, takes the usual JMH command line options
+     * @param args JMH command line options
+     * @throws Exception when the benchmarks fail to run
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains(RESULT_FORMAT)){
+            arguments.add(RESULT_FORMAT);
+            arguments.add("json");
+        }
+        if (!arguments.contains(RESULT_FILE)){
+            arguments.add(RESULT_FILE);
+            arguments.add(DEFAULT_RESULT_FILE);
+        }
+        org.openjdk.jmh.Main.main(arguments.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,49 @@
+package shadowdefend.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enemy movement along the path. Towers play no part in it, so only the enemy count varies.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = LevelTickBenchmark.FRAMES)
+@Measurement(iterations = 20, batchSize = LevelTickBenchmark.FRAMES)
+@Fork(1)
+public class EnemyMovementBenchmark {
+    /* Attributes */
+    @Param({"10", "100", "1000", "10000"})
+    public int enemies;
+
+    @Param({"false", "true"})
+    public boolean enemyArrays;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private LevelFixture level;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws ReflectiveOperationException {
+        level = Fixtures.level(enemies, 0, enemyArrays, parallel);
+    }
+
+    @Benchmark
+    public void moveEnemies() {
+        level.moveEnemies();
+    }
+}
@@ -0,0 +1,39 @@
+package shadowdefend.benchmarks;
+
+/**
+ * Creates the default package fixtures by name
+ */
+final class Fixtures {
+    /* Constants */
+    private static final String SYNTHETIC_LEVEL = "SyntheticLevel";
+    private static final String SYNTHETIC_WAVES = "SyntheticWaves";
+
+    private Fixtures(){
+    }
+
+    /**
+     * Creates a level holding the given number of enemies and towers
+     * @param enemies the number of enemies
+     * @param towers the number of towers
+     * @param enemyArrays whether the level keeps the state of its enemies in an EnemyStore
+     * @param parallel whether the level splits its tick phases over the common fork-join pool
+     * @return the level fixture
+     * @throws ReflectiveOperationException when the fixture class cannot be created
+     */
+    static LevelFixture level(int enemies, int towers, boolean enemyArrays, boolean parallel)
+            throws ReflectiveOperationException {
+        return (LevelFixture) Class.forName(SYNTHETIC_LEVEL)
+                .getConstructor(int.class, int.class, boolean.class, boolean.class)
+                .newInstance(enemies, towers, enemyArrays, parallel);
+    }
+
+    /**
+     * Creates a wave script holding the given number of waves
+     * @param waves the number of waves
+     * @return the wave fixture
+     * @throws ReflectiveOperationException when the fixture class cannot be created
+     */
+    static WaveFixture waves(int waves) throws ReflectiveOperationException {
+        return (WaveFixture) Class.forName(SYNTHETIC_WAVES).getConstructor(int.class).newInstance(waves);
+    }
+}
@@ -0,0 +1,52 @@
+package shadowdefend.benchmarks;
+
+/**
+ * A level loaded with a synthetic set of enemies and towers. The game classes live in the default package, which
+ * cannot be imported from a benchmark, so the benchmarks drive them through this interface instead.
+ */
+public interface LevelFixture {
+
+    /**
+     * Moves every enemy in the level by one frame
+     */
+    void moveEnemies();
+
+    /**
+     * Has every tower find a target and attack it
+     */
+    void defenceAttack();
+
+    /**
+     * Removes dead and finished enemies and towers from the level
+     */
+    void removeCompletedSprites();
+
+    /**
+     * Runs one full frame of the simulation
+     */
+    void tick();
+
+    /**
+     * Kills every n-th enemy so that removal has work to do
+     * @param n the spacing of the enemies to kill
+     */
+    void killEvery(int n);
+
+    /**
+     * Returns the number of enemies currently in the level
+     * @return the number of enemies
+     */
+    int enemyCount();
+
+    /**
+     * Saves a snapshot of the game the level is in
+     * @return the snapshot
+     */
+    byte[] saveSnapshot();
+
+    /**
+     * Loads a snapshot saved by saveSnapshot back into the game
+     * @param snapshot the snapshot
+     */
+    void loadSnapshot(byte[] snapshot);
+}
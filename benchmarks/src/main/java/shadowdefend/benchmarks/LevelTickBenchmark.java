@@ -0,0 +1,61 @@
+package shadowdefend.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tower targeting and the full frame over every combination of enemy and tower count. The level changes as it is
+ * played, so each iteration starts from a fresh level and times one second of game time (60 frames).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = LevelTickBenchmark.FRAMES)
+@Measurement(iterations = 20, batchSize = LevelTickBenchmark.FRAMES)
+@Fork(1)
+public class LevelTickBenchmark {
+    /* Constants */
+    static final int FRAMES = 60;
+
+    /* Attributes */
+    @Param({"10", "100", "1000", "10000"})
+    public int enemies;
+
+    @Param({"10", "100", "500"})
+    public int towers;
+
+    @Param({"false", "true"})
+    public boolean enemyArrays;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private LevelFixture level;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws ReflectiveOperationException {
+        level = Fixtures.level(enemies, towers, enemyArrays, parallel);
+    }
+
+    @Benchmark
+    public void defenceAttack() {
+        level.defenceAttack();
+    }
+
+    @Benchmark
+    public void fullTick() {
+        level.tick();
+    }
+}
@@ -0,0 +1,57 @@
+package shadowdefend.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removal of dead enemies. Every iteration kills one enemy in ten and times the single call that clears them out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 50)
+@Fork(1)
+public class RemovalBenchmark {
+    /* Constants */
+    private static final int KILL_SPACING = 10;
+
+    /* Attributes */
+    @Param({"10", "100", "1000", "10000"})
+    public int enemies;
+
+    @Param({"10", "500"})
+    public int towers;
+
+    @Param({"false", "true"})
+    public boolean enemyArrays;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private LevelFixture level;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws ReflectiveOperationException {
+        level = Fixtures.level(enemies, towers, enemyArrays, parallel);
+        level.killEvery(KILL_SPACING);
+    }
+
+    @Benchmark
+    public int removeCompletedSprites() {
+        level.removeCompletedSprites();
+        return level.enemyCount();
+    }
+}
@@ -0,0 +1,59 @@
+package shadowdefend.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving a snapshot of a level and loading it back in place. Loading replaces the whole level, so the same snapshot
+ * can be loaded over and over.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+    /* Attributes */
+    @Param({"10", "100", "1000", "10000"})
+    public int enemies;
+
+    @Param({"10", "100"})
+    public int towers;
+
+    @Param({"false", "true"})
+    public boolean enemyArrays;
+
+    private LevelFixture level;
+    private byte[] snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        level = Fixtures.level(enemies, towers, enemyArrays, false);
+        level.tick();
+        snapshot = level.saveSnapshot();
+    }
+
+    @Benchmark
+    public byte[] save() {
+        return level.saveSnapshot();
+    }
+
+    @Benchmark
+    public int load() {
+        level.loadSnapshot(snapshot);
+        return level.enemyCount();
+    }
+}
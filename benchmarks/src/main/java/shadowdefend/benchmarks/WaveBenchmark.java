@@ -0,0 +1,43 @@
+package shadowdefend.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and processing every event of a wave script, three events per wave
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class WaveBenchmark {
+    /* Attributes */
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int waves;
+
+    private WaveFixture script;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws ReflectiveOperationException {
+        script = Fixtures.waves(waves);
+    }
+
+    @Benchmark
+    public int parseAndProcess() {
+        return script.drain();
+    }
+}
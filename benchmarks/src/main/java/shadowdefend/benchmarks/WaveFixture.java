@@ -0,0 +1,13 @@
+package shadowdefend.benchmarks;
+
+/**
+ * A wave file loaded from a generated script, driven through an interface for the same reason as LevelFixture
+ */
+public interface WaveFixture {
+
+    /**
+     * Parses and processes every wave event left in the script
+     * @return the number of events processed
+     */
+    int drain();
+}
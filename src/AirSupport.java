@@ -1,34 +1,35 @@
 import bagel.util.Point;
 import bagel.util.Vector2;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
 /**
  * An air support which is a passive defence tower
  */
 public class AirSupport extends Defence{
     /* Constants */
-    private static final String IMAGE_SOURCE = "res/images/airsupport.png";
-    private static final String PROJECTILE_SOURCE = "res/images/explosive.png";
-    private static final int COST = 500;
-    private static final double SPEED = 3;
-    private static final int COOLDOWN = -1;
-    private static final int DAMAGE = 500;
-    private static final int RADIUS = 200;
     private static final int DROP_WINDOW = 60;
-    private static final int MIN_DROP_TIME = 60;
 
     /* Attributes */
-    private static boolean nextIsHorizontal = true;
     private final boolean horizontal;
+    private final GameRandom random;
     private int dropTime;
 
     /**
      * Creates a new air support at a given point
      * @param point the point to create the air support
+     * @param archetype the type of air support
+     * @param horizontal true if it flies horizontally, false if it flies vertically
+     * @param random the random numbers of the game, which decide when it drops its explosives
      */
-    public AirSupport(Point point){
-        super(point, IMAGE_SOURCE, PROJECTILE_SOURCE, COST, COOLDOWN, DAMAGE, RADIUS);
+    public AirSupport(Point point, DefenceArchetype archetype, boolean horizontal, GameRandom random){
+        super(point, archetype);
         resetLastAttack();
-        horizontal = nextIsHorizontal;
+        this.horizontal = horizontal;
+        this.random = random;
         dropTime = generateDropTime();
     }
 
@@ -38,11 +39,11 @@ public class AirSupport extends Defence{
     @Override
     public void move() {
         if (horizontal) {
-            super.move(Vector2.right.mul(SPEED * ShadowDefend.getTimescale()));
+            super.move(Vector2.right.mul(getArchetype().getSpeed()));
             setAngle(Math.PI/2);
         }
         else {
-            super.move(Vector2.down.mul(SPEED * ShadowDefend.getTimescale()));
+            super.move(Vector2.down.mul(getArchetype().getSpeed()));
             setAngle(Math.PI);
         }
     }
@@ -54,41 +55,80 @@ public class AirSupport extends Defence{
     @Override
     public void attack(Level game) {
         if (getLastAttack() >= dropTime && withinMap()){
-            game.addExplosive(getCentre(), PROJECTILE_SOURCE, DAMAGE);
+            game.addExplosive(getCentre(), getArchetype().getProjectileSource(), getArchetype().getDamage(),
+                    getArchetype().getRadius());
             dropTime = generateDropTime();
             resetLastAttack();
         }
     }
 
     /**
-     * The air support does not need to find a target when attacking, hence empty method.
+     * The air support does not need to find a target when attacking, hence never finds one.
      * @param game the game instance
+     * @return null
      */
     @Override
-    public void findTarget(Level game) {
+    public Enemy searchTarget(Level game) {
         // dont find target
+        return null;
     }
 
     /**
-     * Generates a random drop time given the interval
+     * Writes the state of the air support, along with the time of its next drop
+     * @param out where to write the state
+     * @param enemyIndex the index of every enemy of the level by its handle
+     * @throws IOException when the state cannot be written
+     */
+    @Override
+    public void writeState(DataOutput out, Map<Long, Integer> enemyIndex) throws IOException {
+        super.writeState(out, enemyIndex);
+        out.writeInt(dropTime);
+    }
+
+    /**
+     * Reads back the state written by writeState
+     * @param in where to read the state from
+     * @param version the version of the snapshot the state is in
+     * @param enemies the enemies of the level
+     * @throws IOException when the state cannot be read
+     */
+    @Override
+    public void readState(DataInput in, int version, Enemy[] enemies) throws IOException {
+        super.readState(in, version, enemies);
+        dropTime = in.readInt();
+    }
+
+    /**
+     * Generates a random drop time, at least the cooldown of the air support and up to DROP_WINDOW frames more
      * @return an integer representing the drop time
      */
     private int generateDropTime(){
-        return (int) (MIN_DROP_TIME + Math.random() * DROP_WINDOW);
+        return (int) (getArchetype().getCooldown() + random.nextDouble() * DROP_WINDOW);
+    }
+
+    /**
+     * Returns a boolean value indicating whether the air support flies horizontally
+     * @return true if it flies horizontally, false if it flies vertically
+     */
+    public boolean isHorizontal() {
+        return horizontal;
     }
 
     /**
-     * Returns a boolean for whether the plane should have horizontal or vertical movement.
-     * @return true if the plane should have horizontal movement
+     * Returns false, as planes fly over the map and towers can be placed under them
+     * @return false
      */
-    public static boolean isNextIsHorizontal() {
-        return nextIsHorizontal;
+    @Override
+    public boolean blocksPlacement() {
+        return false;
     }
 
     /**
-     * Alternates the boolean value for plane movement directions.
+     * Returns the layer of the render queue planes are drawn in, above the towers they fly over
+     * @return the aircraft layer
      */
-    public static void setNextIsHorizontal(){
-        nextIsHorizontal = !nextIsHorizontal;
+    @Override
+    public int getLayer() {
+        return RenderQueue.AIRCRAFT;
     }
 }
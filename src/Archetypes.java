@@ -0,0 +1,190 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The enemy and defence archetypes of the game, read from a file with one archetype per line, where blank lines and
+ * lines starting with # are skipped:
+ * "enemy,name,sprite,speed,health,penalty,reward,child,children" and
+ * "defence,name,kind,sprite,projectile,cost,cooldown,damage,range,speed".
+ * The archetypes of each kind are numbered in the order they are read, so adding an enemy type is a new line rather
+ * than a new class.
+ */
+public final class Archetypes {
+    /* Constants */
+    public static final String FILE = "res/archetypes.txt";
+    public static final String TANK = "tank";
+    public static final String SUPER_TANK = "supertank";
+    public static final String AIR_SUPPORT = "airsupport";
+    private static final String COMMENT = "#";
+    private static final String ENEMY = "enemy";
+    private static final String DEFENCE = "defence";
+    private static final int ENEMY_FIELDS = 9;
+    private static final int DEFENCE_FIELDS = 10;
+
+    /* Attributes */
+    private static Archetypes standard;
+    private final List<EnemyArchetype> enemies;
+    private final List<DefenceArchetype> defences;
+
+    /**
+     * Creates a set of archetypes
+     * @param enemies the enemy archetypes, in id order
+     * @param defences the defence archetypes, in id order
+     */
+    private Archetypes(List<EnemyArchetype> enemies, List<DefenceArchetype> defences){
+        this.enemies = Collections.unmodifiableList(enemies);
+        this.defences = Collections.unmodifiableList(defences);
+    }
+
+    /**
+     * Returns the archetypes of the game, reading them the first time they are needed
+     * @return the archetypes
+     * @throws UncheckedIOException when the archetype file cannot be read
+     */
+    public static synchronized Archetypes standard(){
+        if (standard == null){
+            try {
+                standard = load(FILE);
+            }
+            catch (IOException e){
+                throw new UncheckedIOException(e);
+            }
+        }
+        return standard;
+    }
+
+    /**
+     * Reads an archetype file
+     * @param path path to the file
+     * @return the archetypes
+     * @throws IOException when the file cannot be read, a line is not valid or a child names no enemy
+     */
+    public static Archetypes load(String path) throws IOException {
+        List<EnemyArchetype> enemies = new ArrayList<>();
+        List<DefenceArchetype> defences = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))){
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null){
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith(COMMENT)){
+                    continue;
+                }
+                // Keeps trailing empty fields, so an enemy with no children can leave its child blank
+                String[] fields = line.split(",", -1);
+                for (int i = 0; i < fields.length; i++){
+                    fields[i] = fields[i].trim();
+                }
+                try {
+                    if (fields[0].equals(ENEMY) && fields.length == ENEMY_FIELDS){
+                        enemies.add(new EnemyArchetype(enemies.size(), fields[1], fields[2],
+                                Double.parseDouble(fields[3]), Integer.parseInt(fields[4]), Integer.parseInt(fields[5]),
+                                Integer.parseInt(fields[6]), fields[7].isEmpty() ? null : fields[7],
+                                Integer.parseInt(fields[8])));
+                    }
+                    else if (fields[0].equals(DEFENCE) && fields.length == DEFENCE_FIELDS){
+                        String kind = fields[2];
+                        if (!kind.equals(DefenceArchetype.TURRET) && !kind.equals(DefenceArchetype.AIR_SUPPORT)){
+                            throw new IOException(path + ":" + lineNumber + ": unknown defence kind '" + kind
+                                    + "', expected " + DefenceArchetype.TURRET + " or " + DefenceArchetype.AIR_SUPPORT);
+                        }
+                        defences.add(new DefenceArchetype(defences.size(), fields[1], kind, fields[3], fields[4],
+                                Integer.parseInt(fields[5]), Integer.parseInt(fields[6]), Integer.parseInt(fields[7]),
+                                Integer.parseInt(fields[8]), Double.parseDouble(fields[9])));
+                    }
+                    else{
+                        throw new IOException(path + ":" + lineNumber + ": expected " + ENEMY_FIELDS
+                                + " fields for an enemy or " + DEFENCE_FIELDS + " for a defence in '" + line + "'");
+                    }
+                }
+                catch (NumberFormatException e){
+                    throw new IOException(path + ":" + lineNumber + ": bad number in '" + line + "'", e);
+                }
+            }
+        }
+
+        Archetypes archetypes = new Archetypes(enemies, defences);
+        for (EnemyArchetype enemy : enemies){
+            if (enemy.getChildName() != null){
+                EnemyArchetype child = archetypes.findEnemy(enemy.getChildName());
+                if (child == null){
+                    throw new IOException(path + ": " + enemy.getName() + " splits into unknown enemy '"
+                            + enemy.getChildName() + "'");
+                }
+                enemy.setChild(child);
+            }
+        }
+        return archetypes;
+    }
+
+    /**
+     * Returns the enemy archetype with the given name
+     * @param name the name wave files use for it
+     * @return the archetype, null if there is none with that name
+     */
+    public EnemyArchetype findEnemy(String name){
+        for (EnemyArchetype enemy : enemies){
+            if (enemy.getName().equals(name)){
+                return enemy;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the defence archetype with the given name
+     * @param name the name of the archetype
+     * @return the archetype
+     * @throws IllegalArgumentException when there is no defence with that name
+     */
+    public DefenceArchetype getDefence(String name){
+        for (DefenceArchetype defence : defences){
+            if (defence.getName().equals(name)){
+                return defence;
+            }
+        }
+        throw new IllegalArgumentException("No defence archetype named " + name);
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the enemy archetype with the given id
+     * @param id the id
+     * @return the archetype
+     */
+    public EnemyArchetype getEnemy(int id) {
+        return enemies.get(id);
+    }
+
+    /**
+     * Returns every enemy archetype, in id order
+     * @return the enemy archetypes
+     */
+    public List<EnemyArchetype> getEnemies() {
+        return enemies;
+    }
+
+    /**
+     * Returns the defence archetype with the given id
+     * @param id the id
+     * @return the archetype
+     */
+    public DefenceArchetype getDefence(int id) {
+        return defences.get(id);
+    }
+
+    /**
+     * Returns every defence archetype, in id order
+     * @return the defence archetypes
+     */
+    public List<DefenceArchetype> getDefences() {
+        return defences;
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * An effect applied to every enemy within an area, such as an explosion
+ */
+public interface AreaEffect {
+    /**
+     * Applies the effect to an enemy found within the area, such as deducting the damage of an explosion from it
+     * @param enemy the enemy within the area
+     */
+    void apply(Enemy enemy);
+}
@@ -0,0 +1,171 @@
+import bagel.Font;
+import bagel.Image;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A reference counted registry of the images and fonts used by the game, keyed by path and font size, so that every
+ * sprite, projectile and panel drawing the same file shares one instance. Assets with no references left are kept
+ * until evictUnused is called, normally when a level is loaded, so that projectiles coming and going do not reload
+ * their fonts. Only used from the render thread.
+ */
+public final class Assets {
+    /* Constants */
+    private static final int IMAGE_SIZE = 0;
+
+    /* Attributes */
+    private static final Map<String, Entry> ENTRIES = new HashMap<>();
+    private static long loads;
+    private static long hits;
+    private static long evictions;
+
+    private Assets(){
+    }
+
+    /**
+     * Returns the shared image at the given path, loading it if it is not in the registry
+     * @param path path to the image
+     * @return the image
+     */
+    public static Image acquireImage(String path){
+        Entry entry = ENTRIES.get(key(path, IMAGE_SIZE));
+        if (entry == null){
+            entry = load(key(path, IMAGE_SIZE), new Image(path));
+        }
+        else{
+            hits++;
+        }
+        entry.references++;
+        return (Image) entry.asset;
+    }
+
+    /**
+     * Returns the shared font at the given path and size, loading it if it is not in the registry
+     * @param path path to the font file
+     * @param size the font size
+     * @return the font
+     */
+    public static Font acquireFont(String path, int size){
+        Entry entry = ENTRIES.get(key(path, size));
+        if (entry == null){
+            entry = load(key(path, size), new Font(path, size));
+        }
+        else{
+            hits++;
+        }
+        entry.references++;
+        return (Font) entry.asset;
+    }
+
+    /**
+     * Gives back a reference to an image
+     * @param path path to the image
+     */
+    public static void releaseImage(String path){
+        release(key(path, IMAGE_SIZE));
+    }
+
+    /**
+     * Gives back a reference to a font
+     * @param path path to the font file
+     * @param size the font size
+     */
+    public static void releaseFont(String path, int size){
+        release(key(path, size));
+    }
+
+    /**
+     * Drops every asset that nothing holds a reference to
+     */
+    public static void evictUnused(){
+        Iterator<Entry> entries = ENTRIES.values().iterator();
+        while (entries.hasNext()){
+            if (entries.next().references == 0){
+                entries.remove();
+                evictions++;
+            }
+        }
+    }
+
+    /**
+     * Adds a newly loaded asset to the registry
+     * @param key the registry key
+     * @param asset the asset
+     * @return the new entry
+     */
+    private static Entry load(String key, Object asset){
+        Entry entry = new Entry(asset);
+        ENTRIES.put(key, entry);
+        loads++;
+        return entry;
+    }
+
+    /**
+     * Decreases the reference count of an asset
+     * @param key the registry key
+     */
+    private static void release(String key){
+        Entry entry = ENTRIES.get(key);
+        if (entry != null && entry.references > 0){
+            entry.references--;
+        }
+    }
+
+    /**
+     * Returns the registry key of an asset
+     * @param path path to the asset
+     * @param size the font size, IMAGE_SIZE for images
+     * @return the registry key
+     */
+    private static String key(String path, int size){
+        return size == IMAGE_SIZE ? path : path + '@' + size;
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the number of times an asset was not in the registry and had to be loaded
+     * @return the number of loads
+     */
+    public static long getLoads() {
+        return loads;
+    }
+
+    /**
+     * Returns the number of times an asset was already in the registry
+     * @return the number of hits
+     */
+    public static long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of unreferenced assets dropped from the registry
+     * @return the number of evictions
+     */
+    public static long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of assets currently in the registry
+     * @return the number of assets
+     */
+    public static int getSize() {
+        return ENTRIES.size();
+    }
+
+    /**
+     * A loaded asset and the number of references to it
+     */
+    private static class Entry {
+        private final Object asset;
+        private int references;
+
+        private Entry(Object asset){
+            this.asset = asset;
+        }
+    }
+}
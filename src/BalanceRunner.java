@@ -0,0 +1,294 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays a level and wave file headless many times over with each of a set of placement strategies, a different seed
+ * per game, spread over every core, and reports how each strategy fared wave by wave. Every strategy plays the same
+ * seeds, so differences between them come from the strategy rather than the luck of the air support drops.
+ *
+ * Usage: java BalanceRunner [--map file] [--waves file] [--strategies name,...] [--games n] [--seed n]
+ * [--threads n] [--max-ticks n]
+ */
+public class BalanceRunner {
+    /* Constants */
+    private static final String USAGE = "usage: java BalanceRunner [--map file] [--waves file] "
+            + "[--strategies name,...] [--games n] [--seed n] [--threads n] [--max-ticks n]";
+    private static final int DEFAULT_GAMES = 1000;
+    private static final long DEFAULT_MAX_TICKS = 2_000_000;
+    private static final long PLACEMENT_SEED = 0x9E3779B97F4A7C15L;
+
+    /* Attributes */
+    private String map;
+    private String waveFile;
+    private List<PlacementStrategy> strategies = Arrays.asList(PlacementStrategy.values());
+    private int games = DEFAULT_GAMES;
+    private long seed = 1;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long maxTicks = DEFAULT_MAX_TICKS;
+
+    /**
+     * Entry point for the runner
+     * @param args the command line options
+     * @throws Exception when a game cannot be played
+     */
+    public static void main(String[] args) throws Exception {
+        BalanceRunner runner = new BalanceRunner();
+        try {
+            runner.parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        runner.run(System.out);
+    }
+
+    /**
+     * Reads the command line options
+     * @param args the command line options
+     * @throws IllegalArgumentException when an option is unknown or has a bad value
+     */
+    public void parseArguments(String[] args){
+        for (int i = 0; i < args.length; i += 2){
+            if (i + 1 >= args.length){
+                throw new IllegalArgumentException("missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]){
+                case "--map":
+                    map = value;
+                    break;
+                case "--waves":
+                    waveFile = value;
+                    break;
+                case "--strategies":
+                    strategies = new ArrayList<>();
+                    for (String name : value.split(",")){
+                        PlacementStrategy strategy = PlacementStrategy.fromName(name.trim());
+                        if (strategy == null){
+                            throw new IllegalArgumentException("unknown strategy '" + name + "'");
+                        }
+                        strategies.add(strategy);
+                    }
+                    break;
+                case "--games":
+                    games = parsePositive(args[i], value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--threads":
+                    threads = parsePositive(args[i], value);
+                    break;
+                case "--max-ticks":
+                    maxTicks = parsePositive(args[i], value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+    }
+
+    /**
+     * Parses a whole number option that must be at least one
+     * @param option the name of the option, for error messages
+     * @param value the value of the option
+     * @return the number
+     * @throws IllegalArgumentException when the value is not a positive whole number
+     */
+    private static int parsePositive(String option, String value){
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0){
+                return number;
+            }
+        } catch (NumberFormatException ignored) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("bad value '" + value + "' for " + option);
+    }
+
+    /**
+     * Plays every game and prints a report for each strategy. The map and wave file not given on the command line
+     * are those of the first level in the manifest.
+     * @param out where to print the reports
+     * @throws IOException when the manifest cannot be read
+     * @throws InterruptedException when interrupted while waiting for the games
+     * @throws ExecutionException when a game fails
+     */
+    public void run(PrintStream out) throws IOException, InterruptedException, ExecutionException {
+        if (map == null || waveFile == null){
+            LevelCatalogue manifest = LevelCatalogue.load(LevelCatalogue.MANIFEST);
+            map = map == null ? manifest.getMapFile(0) : map;
+            waveFile = waveFile == null ? manifest.getWaveFile(0) : waveFile;
+        }
+        LevelCatalogue catalogue = LevelCatalogue.of(waveFile, map);
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<List<Future<GameResult>>> results = new ArrayList<>();
+            for (PlacementStrategy strategy : strategies){
+                List<Future<GameResult>> strategyResults = new ArrayList<>();
+                for (int game = 0; game < games; game++){
+                    long gameSeed = seed + game;
+                    strategyResults.add(pool.submit(() -> play(catalogue, strategy, gameSeed)));
+                }
+                results.add(strategyResults);
+            }
+
+            out.printf("%s with %s, %d games per strategy on %d threads%n", map, waveFile, games, threads);
+            for (int i = 0; i < strategies.size(); i++){
+                Report report = new Report();
+                for (Future<GameResult> result : results.get(i)){
+                    report.add(result.get());
+                }
+                report.print(out, strategies.get(i));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        out.printf("%nPlayed %d games in %.1f s (%.0f games/s)%n", games * strategies.size(), seconds,
+                games * strategies.size() / seconds);
+    }
+
+    /**
+     * Plays one game to the end, placing towers with the strategy before every wave. Every game after the first
+     * gets the parsed level from the level cache.
+     * @param catalogue the level to play
+     * @param strategy the placement strategy
+     * @param gameSeed the seed of the game
+     * @return the result of the game
+     * @throws IOException when the level files cannot be read
+     */
+    private GameResult play(LevelCatalogue catalogue, PlacementStrategy strategy, long gameSeed) throws IOException {
+        Simulation simulation = new Simulation(catalogue, false, false, gameSeed);
+        // Placement gets its own random numbers so that strategies placing different towers still see the same drops
+        Random placement = new Random(gameSeed ^ PLACEMENT_SEED);
+        GameResult result = new GameResult();
+        int livesAtStart = simulation.getLives();
+        long ticks = 0;
+        while (!simulation.isGameOver() && ticks < maxTicks){
+            if (!simulation.isWaveStarted()){
+                strategy.place(simulation, placement);
+                livesAtStart = simulation.getLives();
+                simulation.startWave();
+            }
+            simulation.tick();
+            ticks++;
+            if (!simulation.isWaveStarted() || simulation.isGameOver()){
+                result.endWave(livesAtStart - simulation.getLives(), simulation.getMoney());
+            }
+        }
+        result.won = simulation.isGameOver() && simulation.getLives() > 0;
+        result.timedOut = !simulation.isGameOver();
+        simulation.getGameLevel().release();
+        return result;
+    }
+
+    /**
+     * The lives lost and money left after each wave of one game
+     */
+    private static class GameResult {
+        private int[] livesLost = new int[0];
+        private int[] money = new int[0];
+        private int waves;
+        private int firstLeak = -1;
+        private boolean won;
+        private boolean timedOut;
+
+        /**
+         * Records the end of a wave
+         * @param lost the lives lost during the wave
+         * @param moneyLeft the money the player has once the wave is over
+         */
+        private void endWave(int lost, int moneyLeft){
+            if (waves == livesLost.length){
+                livesLost = Arrays.copyOf(livesLost, Math.max(2 * waves, 16));
+                money = Arrays.copyOf(money, livesLost.length);
+            }
+            livesLost[waves] = lost;
+            money[waves] = moneyLeft;
+            if (lost > 0 && firstLeak < 0){
+                firstLeak = waves;
+            }
+            waves++;
+        }
+    }
+
+    /**
+     * The results of every game played with one strategy, summed wave by wave
+     */
+    private static class Report {
+        private long[] livesLost = new long[0];
+        private long[] money = new long[0];
+        private int[] reached = new int[0];
+        private int[] firstLeaks = new int[0];
+        private final List<Integer> leakWaves = new ArrayList<>();
+        private int games;
+        private int wins;
+        private int timeouts;
+
+        /**
+         * Adds a game to the report
+         * @param result the result of the game
+         */
+        private void add(GameResult result){
+            if (result.waves > reached.length){
+                livesLost = Arrays.copyOf(livesLost, result.waves);
+                money = Arrays.copyOf(money, result.waves);
+                reached = Arrays.copyOf(reached, result.waves);
+                firstLeaks = Arrays.copyOf(firstLeaks, result.waves);
+            }
+            for (int wave = 0; wave < result.waves; wave++){
+                livesLost[wave] += result.livesLost[wave];
+                money[wave] += result.money[wave];
+                reached[wave]++;
+            }
+            if (result.firstLeak >= 0){
+                firstLeaks[result.firstLeak]++;
+                leakWaves.add(result.firstLeak + 1);
+            }
+            games++;
+            wins += result.won ? 1 : 0;
+            timeouts += result.timedOut ? 1 : 0;
+        }
+
+        /**
+         * Prints the report
+         * @param out where to print it
+         * @param strategy the strategy the games were played with
+         */
+        private void print(PrintStream out, PlacementStrategy strategy){
+            out.printf("%nStrategy %s: win rate %.1f%% (%d/%d)", strategy.getName(), 100.0 * wins / games, wins,
+                    games);
+            if (timeouts > 0){
+                out.printf(", %d timed out", timeouts);
+            }
+            out.println();
+            if (leakWaves.isEmpty()){
+                out.println("  never leaked");
+            }
+            else {
+                leakWaves.sort(null);
+                out.printf("  first leak: earliest wave %d, median wave %d, never leaked in %.1f%% of games%n",
+                        leakWaves.get(0), leakWaves.get(leakWaves.size() / 2),
+                        100.0 * (games - leakWaves.size()) / games);
+            }
+            out.println("  wave  games  lives lost  money  first leak");
+            for (int wave = 0; wave < reached.length; wave++){
+                out.printf("  %4d  %5d  %10.2f  %5.0f  %9.1f%%%n", wave + 1, reached[wave],
+                        (double) livesLost[wave] / reached[wave], (double) money[wave] / reached[wave],
+                        100.0 * firstLeaks[wave] / games);
+            }
+        }
+    }
+}
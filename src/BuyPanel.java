@@ -11,9 +11,12 @@ import bagel.util.Rectangle;
  */
 public class BuyPanel extends Panel{
     /* Constants */
-    public static final int TANK_PRICE = 250;
-    public static final int SUPER_TANK_PRICE = 600;
-    public static final int AIR_SUPPORT_PRICE = 500;
+    private static final DefenceArchetype TANK = Archetypes.standard().getDefence(Archetypes.TANK);
+    private static final DefenceArchetype SUPER_TANK = Archetypes.standard().getDefence(Archetypes.SUPER_TANK);
+    private static final DefenceArchetype AIR_SUPPORT = Archetypes.standard().getDefence(Archetypes.AIR_SUPPORT);
+    public static final int TANK_PRICE = TANK.getCost();
+    public static final int SUPER_TANK_PRICE = SUPER_TANK.getCost();
+    public static final int AIR_SUPPORT_PRICE = AIR_SUPPORT.getCost();
     private static final int KEY_BIND_FONT_SIZE = 14;
     private static final int MONEY_FONT_SIZE = 50;
     private static final int PRICE_FONT_SIZE = 20;
@@ -24,6 +27,10 @@ public class BuyPanel extends Panel{
     private static final int MONEY_Y = 65;
     private static final int DEFENCE_MONEY_OFFSET = 10;
     private static final String FONT_FILE = "res/fonts/DejaVuSans-Bold.ttf";
+    private static final int ITEMS = RenderQueue.BUY_PANEL_ITEMS;
+    private static final String TANK_PRICE_TEXT = "$" + TANK_PRICE;
+    private static final String SUPER_TANK_PRICE_TEXT = "$" + SUPER_TANK_PRICE;
+    private static final String AIR_SUPPORT_PRICE_TEXT = "$" + AIR_SUPPORT_PRICE;
 
     /* Attributes */
     private final int yPos = (int) getBackground().getHeight()/2 - 10;
@@ -37,18 +44,19 @@ public class BuyPanel extends Panel{
     private final DrawOptions tankPriceColour;
     private final DrawOptions superTankPriceColour;
     private final DrawOptions airSupportPriceColour;
+    private final CachedText moneyText = new CachedText("$");
 
     /**
      * Creates a new buy panel
      */
     public BuyPanel(){
         super("res/images/buypanel.png");
-        keyBindFont = new Font(FONT_FILE, KEY_BIND_FONT_SIZE);
-        moneyFont = new Font(FONT_FILE, MONEY_FONT_SIZE);
-        priceFont = new Font(FONT_FILE, PRICE_FONT_SIZE);
-        tank = new Image("res/images/tank.png");
-        superTank = new Image("res/images/supertank.png");
-        airSupport = new Image("res/images/airsupport.png");
+        keyBindFont = Assets.acquireFont(FONT_FILE, KEY_BIND_FONT_SIZE);
+        moneyFont = Assets.acquireFont(FONT_FILE, MONEY_FONT_SIZE);
+        priceFont = Assets.acquireFont(FONT_FILE, PRICE_FONT_SIZE);
+        tank = Assets.acquireImage(TANK.getImageSource());
+        superTank = Assets.acquireImage(SUPER_TANK.getImageSource());
+        airSupport = Assets.acquireImage(AIR_SUPPORT.getImageSource());
         tankPriceColour = new DrawOptions().setBlendColour(Colour.RED);
         superTankPriceColour = new DrawOptions().setBlendColour(Colour.RED);
         airSupportPriceColour = new DrawOptions().setBlendColour(Colour.RED);
@@ -58,30 +66,35 @@ public class BuyPanel extends Panel{
 
     /**
      * Draws the buy panel
+     * @param gameInstance the game to show the money of
+     * @param queue the render queue of the frame
      */
     @Override
-    public void drawPanel(ShadowDefend gameInstance){
-        getBackground().draw( Window.getWidth()/2, getBackground().getHeight()/2);
-        drawKeyBindings();
-        moneyFont.drawString("$" + gameInstance.getMoney(), MONEY_X, MONEY_Y);
-        drawDefences(gameInstance.getMoney());
+    public void drawPanel(Simulation gameInstance, RenderQueue queue){
+        queue.draw(RenderQueue.BUY_PANEL, getBackground(), Window.getWidth()/2, getBackground().getHeight()/2);
+        drawKeyBindings(queue);
+        queue.drawString(ITEMS, moneyFont, moneyText.of(gameInstance.getMoney()), MONEY_X, MONEY_Y);
+        drawDefences(gameInstance.getMoney(), queue);
     }
 
     /**
      * Draws the key bindings
+     * @param queue the render queue of the frame
      */
-    private void drawKeyBindings(){
+    private void drawKeyBindings(RenderQueue queue){
         int leftAlign = (int) getBackground().getWidth()/2 - 50;
-        keyBindFont.drawString("Key Binds:", leftAlign, getBackground().getHeight()*2/8);
-        keyBindFont.drawString("S - Start Wave", leftAlign, getBackground().getHeight()*4/8);
-        keyBindFont.drawString("L - Increase Timescale", leftAlign, getBackground().getHeight()*5/8);
-        keyBindFont.drawString("K - Decrease Timescale", leftAlign, getBackground().getHeight()*6/8);
+        queue.drawString(ITEMS, keyBindFont, "Key Binds:", leftAlign, getBackground().getHeight()*2/8);
+        queue.drawString(ITEMS, keyBindFont, "S - Start Wave", leftAlign, getBackground().getHeight()*4/8);
+        queue.drawString(ITEMS, keyBindFont, "L - Increase Timescale", leftAlign, getBackground().getHeight()*5/8);
+        queue.drawString(ITEMS, keyBindFont, "K - Decrease Timescale", leftAlign, getBackground().getHeight()*6/8);
     }
 
     /**
      * Draws the defences icons and their money icons based on how much the player has
+     * @param money the money of the player
+     * @param queue the render queue of the frame
      */
-    private void drawDefences(int money){
+    private void drawDefences(int money, RenderQueue queue){
         if (money <= TANK_PRICE){
             tankPriceColour.setBlendColour(Colour.RED);
             superTankPriceColour.setBlendColour(Colour.RED);
@@ -102,43 +115,47 @@ public class BuyPanel extends Panel{
             superTankPriceColour.setBlendColour(Colour.GREEN);
             airSupportPriceColour.setBlendColour(Colour.GREEN);
         }
-        tank.draw(TANK_X, yPos);
-        priceFont.drawString(String.format("$%d", TANK_PRICE), TANK_X - tank.getWidth()/2 + DEFENCE_MONEY_OFFSET,
-                textY, tankPriceColour);
-        superTank.draw(SUPER_TANK_X, yPos);
-        priceFont.drawString(String.format("$%d", SUPER_TANK_PRICE), SUPER_TANK_X - superTank.getWidth()/2 +
-                DEFENCE_MONEY_OFFSET, textY, superTankPriceColour);
-        airSupport.draw(AIR_SUPPORT_X, yPos);
-        priceFont.drawString(String.format("$%d", AIR_SUPPORT_PRICE), AIR_SUPPORT_X - airSupport.getWidth()/2 +
-                DEFENCE_MONEY_OFFSET, textY, airSupportPriceColour);
+        queue.draw(ITEMS, tank, TANK_X, yPos);
+        queue.drawString(ITEMS, priceFont, TANK_PRICE_TEXT, TANK_X - tank.getWidth()/2 +
+                DEFENCE_MONEY_OFFSET, textY, tankPriceColour);
+        queue.draw(ITEMS, superTank, SUPER_TANK_X, yPos);
+        queue.drawString(ITEMS, priceFont, SUPER_TANK_PRICE_TEXT, SUPER_TANK_X -
+                superTank.getWidth()/2 + DEFENCE_MONEY_OFFSET, textY, superTankPriceColour);
+        queue.draw(ITEMS, airSupport, AIR_SUPPORT_X, yPos);
+        queue.drawString(ITEMS, priceFont, AIR_SUPPORT_PRICE_TEXT, AIR_SUPPORT_X -
+                airSupport.getWidth()/2 + DEFENCE_MONEY_OFFSET, textY, airSupportPriceColour);
     }
 
     /**
      * Draws the tank indicator at the given point
      * @param point the given point
+     * @param queue the render queue of the frame
      */
-    public void drawTankIndicator(Point point){
-        tank.draw(point.x, point.y);
+    public void drawTankIndicator(Point point, RenderQueue queue){
+        queue.draw(RenderQueue.INDICATOR, tank, point.x, point.y);
     }
 
     /**
      * Draws the super tank indicator at the given point
      * @param point the given point
+     * @param queue the render queue of the frame
      */
-    public void drawSuperTankIndicator(Point point){
-        superTank.draw(point.x, point.y);
+    public void drawSuperTankIndicator(Point point, RenderQueue queue){
+        queue.draw(RenderQueue.INDICATOR, superTank, point.x, point.y);
     }
 
     /**
      * Draws the air support indicator at the given point
      * @param point the given point
+     * @param horizontal true if the next plane flies horizontally
+     * @param queue the render queue of the frame
      */
-    public void drawAirSupportIndicator(Point point){
-        if (AirSupport.isNextIsHorizontal()){
-            airSupport.draw(point.x, point.y, new DrawOptions().setRotation(Math.PI/2));
+    public void drawAirSupportIndicator(Point point, boolean horizontal, RenderQueue queue){
+        if (horizontal){
+            queue.draw(RenderQueue.INDICATOR, airSupport, point.x, point.y, Math.PI/2);
         }
         else{
-            airSupport.draw(point.x, point.y, new DrawOptions().setRotation(Math.PI));
+            queue.draw(RenderQueue.INDICATOR, airSupport, point.x, point.y, Math.PI);
         }
     }
 
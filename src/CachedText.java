@@ -0,0 +1,46 @@
+/**
+ * A line of HUD text made of a fixed label and a value. The text is only built again when the value changes, so a
+ * panel drawing the same value frame after frame does not allocate a new string every frame.
+ */
+public class CachedText {
+    /* Attributes */
+    private final String label;
+    private String text;
+    private int number;
+    private String value;
+
+    /**
+     * Creates a line of text
+     * @param label the text in front of the value
+     */
+    public CachedText(String label){
+        this.label = label;
+    }
+
+    /**
+     * Returns the text for a number
+     * @param number the value
+     * @return the label followed by the number
+     */
+    public String of(int number){
+        if (text == null || value != null || number != this.number){
+            this.number = number;
+            value = null;
+            text = label + number;
+        }
+        return text;
+    }
+
+    /**
+     * Returns the text for a string
+     * @param value the value
+     * @return the label followed by the value
+     */
+    public String of(String value){
+        if (text == null || !value.equals(this.value)){
+            this.value = value;
+            text = label + value;
+        }
+        return text;
+    }
+}
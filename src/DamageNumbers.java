@@ -0,0 +1,130 @@
+import bagel.DrawOptions;
+import bagel.Font;
+import bagel.util.Colour;
+import bagel.util.Point;
+
+import java.util.Arrays;
+
+/**
+ * Floating damage numbers. Every hit puts a number over the enemy that drifts up and fades out over a short time.
+ * The numbers live in reused primitive arrays, the text of each damage value is built once, and the fading colours
+ * are a fixed set of draw options, so showing hits allocates nothing once the arrays have grown to fit.
+ */
+public class DamageNumbers implements HitListener {
+    /* Constants */
+    private static final String FONT_FILE = "res/fonts/DejaVuSans-Bold.ttf";
+    private static final int FONT_SIZE = 14;
+    private static final int LIFETIME = 30; // Frames a number stays on screen
+    private static final double RISE = 0.75; // Pixels a number drifts up per frame
+    private static final int FADE_STEPS = 6;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_CACHED_LABEL = 1024;
+
+    /* Attributes */
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private int[] damage = new int[INITIAL_CAPACITY];
+    private int[] age = new int[INITIAL_CAPACITY];
+    private int size;
+    private String[] labels = new String[0];
+    private DrawOptions[] fades;
+    private Font font;
+
+    /**
+     * Starts a number over an enemy that has been hit
+     * @param target the enemy that was hit
+     * @param damage the damage dealt
+     */
+    @Override
+    public void hit(Enemy target, int damage){
+        if (size == x.length){
+            x = Arrays.copyOf(x, size * 2);
+            y = Arrays.copyOf(y, size * 2);
+            this.damage = Arrays.copyOf(this.damage, size * 2);
+            age = Arrays.copyOf(age, size * 2);
+        }
+        Point centre = target.getCentre();
+        x[size] = centre.x;
+        y[size] = centre.y;
+        this.damage[size] = damage;
+        age[size] = 0;
+        size++;
+    }
+
+    /**
+     * Adds the numbers to the frame, then ages them by a frame and drops the ones that have faded out
+     * @param queue the render queue of the frame
+     */
+    public void render(RenderQueue queue){
+        if (size == 0){
+            return;
+        }
+        if (font == null){
+            font = Assets.acquireFont(FONT_FILE, FONT_SIZE);
+            fades = new DrawOptions[FADE_STEPS];
+            for (int i = 0; i < FADE_STEPS; i++){
+                fades[i] = new DrawOptions().setBlendColour(new Colour(0, 0, 0, 1 - (double) i / FADE_STEPS));
+            }
+        }
+        int live = 0;
+        for (int i = 0; i < size; i++){
+            queue.drawString(RenderQueue.PROJECTILES, font, label(damage[i]), x[i], y[i] - age[i] * RISE,
+                    fades[age[i] * FADE_STEPS / LIFETIME]);
+            // Move the numbers still showing down to the front so the live ones stay packed
+            if (++age[i] < LIFETIME){
+                x[live] = x[i];
+                y[live] = y[i];
+                damage[live] = damage[i];
+                age[live] = age[i];
+                live++;
+            }
+        }
+        size = live;
+    }
+
+    /**
+     * Drops every number, for when the game restarts or loads
+     */
+    public void clear(){
+        size = 0;
+    }
+
+    /**
+     * Returns the text of a damage value, building it the first time the value is seen. Unusually large values are
+     * built every time rather than growing the cache.
+     * @param value the damage
+     * @return the text
+     */
+    private String label(int value){
+        if (value < 0 || value > MAX_CACHED_LABEL){
+            return "-" + value;
+        }
+        if (value >= labels.length){
+            labels = Arrays.copyOf(labels, Math.max(value + 1, labels.length * 2));
+        }
+        if (labels[value] == null){
+            labels[value] = "-" + value;
+        }
+        return labels[value];
+    }
+
+    /**
+     * Gives back the font of the numbers
+     */
+    public void release(){
+        if (font != null){
+            Assets.releaseFont(FONT_FILE, FONT_SIZE);
+            font = null;
+        }
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the number of damage numbers on screen
+     * @return the number of numbers
+     */
+    public int getSize() {
+        return size;
+    }
+}
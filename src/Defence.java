@@ -1,38 +1,33 @@
-import bagel.Window;
 import bagel.util.Point;
+import bagel.util.Rectangle;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
 
 /**
- * The defences of the game
+ * The defences of the game. A plain defence is a turret that shoots homing projectiles at the enemy furthest along
+ * the path within its radius, with the stats of its archetype.
  */
-public abstract class Defence extends Sprite implements Moveable{
+public class Defence extends Sprite implements Moveable{
     /* Attributes */
-    private final String projectileSource;
-    private final int cost;
-    private final int cooldown;
-    private final int damage;
-    private final int radius;
+    private final DefenceArchetype archetype;
     private int lastAttack;
-    private Enemy currentEnemy;
+    private long currentEnemy;
+    private PathIndex rangePath;
+    private double[] rangeIntervals;
 
     /**
      * Creates a new defence tower
      * @param point the location to place it
-     * @param imageSource its image file source
-     * @param projectileSource its projectile file source
-     * @param cost its cost
-     * @param cooldown its attacking cooldown
-     * @param damage its projectile damage
-     * @param radius its effective radius
-     */
-    public Defence(Point point, String imageSource, String projectileSource, int cost, int cooldown, int damage, int radius){
-        super(point, imageSource);
-        this.cost = cost;
-        this.projectileSource = projectileSource;
-        this.cooldown = cooldown;
-        this.damage = damage;
-        this.radius = radius;
+     * @param archetype the type of defence
+     */
+    public Defence(Point point, DefenceArchetype archetype){
+        super(point, archetype.getImageSource());
+        this.archetype = archetype;
         lastAttack = Integer.MAX_VALUE;
-        currentEnemy = null;
+        currentEnemy = HandleTable.NONE;
     }
 
     /**
@@ -47,9 +42,10 @@ public abstract class Defence extends Sprite implements Moveable{
      * @param game the instance of the game to add a projectile into
      */
     public void attack(Level game){
-        if (currentEnemy != null && !currentEnemy.getCompleted() && lastAttack > cooldown){
-            if (currentEnemy.getCentre().asVector().sub(getCentre().asVector()).length() <= radius){
-                game.addProjectile(getCentre(), projectileSource, currentEnemy, damage);
+        Enemy target = game.getEnemy(currentEnemy);
+        if (target != null && !target.getCompleted() && lastAttack > archetype.getCooldown()){
+            if (target.getCentre().asVector().sub(getCentre().asVector()).length() <= archetype.getRadius()){
+                game.addProjectile(getCentre(), archetype.getProjectileSource(), target, archetype.getDamage());
                 lastAttack = 0;
             }
         }
@@ -61,32 +57,112 @@ public abstract class Defence extends Sprite implements Moveable{
      * @param game the game instance
      */
     public void findTarget(Level game){
-        if (currentEnemy == null || currentEnemy.getCompleted()){
-            for (Enemy enemy : game.getLevelEnemy()){
-                Point enemyPos = enemy.getCentre();
-                if ((getCentre().asVector().sub(enemyPos.asVector())).length() <= radius && !enemy.isTargeted()){
-                    currentEnemy = enemy;
-                    enemy.setTargeted(true);
-                    break;
-                }
-            }
+        findTarget(game, searchTarget(game));
+    }
+
+    /**
+     * Looks for the enemy the defence would target if it needs a new target, without targeting it. Only reads the
+     * level, so every defence can search at once.
+     * @param game the game instance
+     * @return the un-targeted enemy in range furthest along the path, null if there is none or the defence already
+     *         has a target
+     */
+    public Enemy searchTarget(Level game){
+        if (!needsTarget(game)){
+            return null;
+        }
+        // Defences never move, so the parts of the path in range only need to be worked out once per path
+        if (rangePath != game.getPathIndex()){
+            rangePath = game.getPathIndex();
+            rangeIntervals = rangePath.rangeIntervals(getCentre(), archetype.getRadius() + TargetIndex.PATH_TOLERANCE);
         }
-        else{
-            double dx = currentEnemy.getCentre().x - getCentre().x;
-            double dy = currentEnemy.getCentre().y - getCentre().y;
-            setAngle(Math.atan2(dy, dx) + Math.PI/2);
-            if (currentEnemy.getCentre().asVector().sub(getCentre().asVector()).length() > radius){
-                currentEnemy.setTargeted(false);
-                currentEnemy = null;
+        return game.getTargetIndex().furthestUntargeted(getCentre(), archetype.getRadius(), rangeIntervals);
+    }
+
+    /**
+     * Targets the enemy found by searchTarget if the defence needs a new target, otherwise turns to face the current
+     * target and drops it once it leaves the radius
+     * @param game the game instance
+     * @param candidate the enemy found by searchTarget
+     * @return the enemy whose targeted flag was changed, null if none was
+     */
+    public Enemy findTarget(Level game, Enemy candidate){
+        if (needsTarget(game)){
+            if (candidate != null){
+                currentEnemy = candidate.getHandle();
+                candidate.setTargeted(true);
             }
+            return candidate;
+        }
+        Enemy target = game.getEnemy(currentEnemy);
+        double dx = target.getCentre().x - getCentre().x;
+        double dy = target.getCentre().y - getCentre().y;
+        setAngle(Math.atan2(dy, dx) + Math.PI/2);
+        if (target.getCentre().asVector().sub(getCentre().asVector()).length() > archetype.getRadius()){
+            target.setTargeted(false);
+            currentEnemy = HandleTable.NONE;
+            return target;
+        }
+        return null;
+    }
+
+    /**
+     * Checks if an enemy is close enough for the defence to pick as a target, the same test TargetIndex uses
+     * @param enemy the enemy
+     * @return true if the enemy is within the radius
+     */
+    public boolean inRange(Enemy enemy){
+        Point enemyPos = enemy.getCentre();
+        double dx = enemyPos.x - getCentre().x;
+        double dy = enemyPos.y - getCentre().y;
+        double radius = archetype.getRadius();
+        return dx * dx + dy * dy <= radius * radius;
+    }
+
+    /**
+     * Writes the state of the defence: where it is, where it is facing, the frames since its last attack and its
+     * target as an index into the enemies of the level
+     * @param out where to write the state
+     * @param enemyIndex the index of every enemy of the level by its handle
+     * @throws IOException when the state cannot be written
+     */
+    public void writeState(DataOutput out, Map<Long, Integer> enemyIndex) throws IOException {
+        Rectangle rect = getRect();
+        out.writeDouble(rect.left());
+        out.writeDouble(rect.top());
+        out.writeDouble(getAngle());
+        out.writeInt(lastAttack);
+        Integer target = enemyIndex.get(currentEnemy);
+        out.writeInt(target == null ? -1 : target);
+    }
+
+    /**
+     * Reads back the state written by writeState
+     * @param in where to read the state from
+     * @param version the version of the snapshot the state is in
+     * @param enemies the enemies of the level, in the order they were indexed when written
+     * @throws IOException when the state cannot be read
+     */
+    public void readState(DataInput in, int version, Enemy[] enemies) throws IOException {
+        getRect().moveTo(new Point(in.readDouble(), in.readDouble()));
+        setAngle(in.readDouble());
+        lastAttack = in.readInt();
+        int target = in.readInt();
+        if (target >= enemies.length){
+            throw new IOException("Defence targets enemy " + target + " of " + enemies.length);
         }
+        currentEnemy = target < 0 ? HandleTable.NONE : enemies[target].getHandle();
+        rangePath = null;
     }
 
     /**
-     * Increases the timer for the last attack based on the timescale
+     * Increases the timer for the last attack by one frame
      */
     public void increaseAttackCounter(){
-        lastAttack += ShadowDefend.getTimescale();
+        // Starts at Integer.MAX_VALUE so a new tower can fire straight away, so must not wrap around
+        if (lastAttack < Integer.MAX_VALUE){
+            lastAttack++;
+        }
     }
 
     /**
@@ -94,8 +170,8 @@ public abstract class Defence extends Sprite implements Moveable{
      * @return true if the defence tower is within the map
      */
     public boolean withinMap(){
-        return getCentre().x >= 0 && getCentre().x <= Window.getWidth() &&
-                getCentre().y >= 0 && getCentre().y <= Window.getHeight();
+        return getCentre().x >= 0 && getCentre().x <= Simulation.WIDTH &&
+                getCentre().y >= 0 && getCentre().y <= Simulation.HEIGHT;
     }
 
     /**
@@ -103,11 +179,40 @@ public abstract class Defence extends Sprite implements Moveable{
      * @return true if it is off the map
      */
     public boolean completedPath(){
-        return getCentre().x <= Window.getWidth() || getCentre().y <= Window.getHeight();
+        return getCentre().x <= Simulation.WIDTH || getCentre().y <= Simulation.HEIGHT;
     }
 
     /* Getters and setters */
 
+    /**
+     * Returns a boolean value indicating whether the defence has no live target. A target that has left the level
+     * has a stale handle, so the defence never has to be told about it.
+     * @param game the game instance
+     * @return true if the defence needs to find a new target
+     */
+    public boolean needsTarget(Level game) {
+        Enemy target = game.getEnemy(currentEnemy);
+        return target == null || target.getCompleted();
+    }
+
+    /**
+     * Returns a boolean value indicating whether the defence stands on the map, so no other tower can be placed on
+     * top of it
+     * @return true for towers
+     */
+    public boolean blocksPlacement() {
+        return true;
+    }
+
+    /**
+     * Returns the layer of the render queue towers are drawn in
+     * @return the tower layer
+     */
+    @Override
+    public int getLayer() {
+        return RenderQueue.TOWERS;
+    }
+
     /**
      * Returns an integer representing the frames since the last attack
      * @return the number of elapsed frames
@@ -128,6 +233,14 @@ public abstract class Defence extends Sprite implements Moveable{
      * @return the cost of the defence
      */
     public int getCost() {
-        return cost;
+        return archetype.getCost();
+    }
+
+    /**
+     * Returns the archetype of the defence, the stats it shares with every defence of its type
+     * @return the archetype
+     */
+    public DefenceArchetype getArchetype() {
+        return archetype;
     }
 }
@@ -0,0 +1,129 @@
+/**
+ * The stats shared by every defence of one type, read from the archetype file
+ */
+public final class DefenceArchetype {
+    /* Constants */
+    public static final String TURRET = "turret";
+    public static final String AIR_SUPPORT = "airsupport";
+
+    /* Attributes */
+    private final int id;
+    private final String name;
+    private final String kind;
+    private final String imageSource;
+    private final String projectileSource;
+    private final int cost;
+    private final int cooldown;
+    private final int damage;
+    private final int radius;
+    private final double speed;
+
+    /**
+     * Creates a defence archetype
+     * @param id the number of the archetype, its position among the defences of the archetype file
+     * @param name the name of the archetype
+     * @param kind how the defence behaves, TURRET or AIR_SUPPORT
+     * @param imageSource its image
+     * @param projectileSource the image of its projectiles
+     * @param cost its cost
+     * @param cooldown the frames between its attacks, for an air support the fewest frames between its drops
+     * @param damage its projectile damage
+     * @param radius its effective radius, for an air support the blast radius of its explosives
+     * @param speed how fast it flies, 0 for towers that stand still
+     */
+    public DefenceArchetype(int id, String name, String kind, String imageSource, String projectileSource, int cost,
+                            int cooldown, int damage, int radius, double speed){
+        this.id = id;
+        this.name = name;
+        this.kind = kind;
+        this.imageSource = imageSource;
+        this.projectileSource = projectileSource;
+        this.cost = cost;
+        this.cooldown = cooldown;
+        this.damage = damage;
+        this.radius = radius;
+        this.speed = speed;
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the number of the archetype, which snapshots know it by
+     * @return the id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the name of the archetype
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns a boolean value indicating whether the defence is a plane that flies over the map
+     * @return true for air supports, false for turrets
+     */
+    public boolean isAirSupport() {
+        return AIR_SUPPORT.equals(kind);
+    }
+
+    /**
+     * Returns the image of the defence
+     * @return the image file source
+     */
+    public String getImageSource() {
+        return imageSource;
+    }
+
+    /**
+     * Returns the image of the projectiles of the defence
+     * @return the projectile file source
+     */
+    public String getProjectileSource() {
+        return projectileSource;
+    }
+
+    /**
+     * Returns the cost of the defence
+     * @return the cost
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Returns the frames between the attacks of the defence, or for an air support the fewest frames between drops
+     * @return the cooldown
+     */
+    public int getCooldown() {
+        return cooldown;
+    }
+
+    /**
+     * Returns the damage of the projectiles of the defence
+     * @return the damage
+     */
+    public int getDamage() {
+        return damage;
+    }
+
+    /**
+     * Returns the effective radius of the defence, or for an air support the blast radius of its explosives
+     * @return the radius
+     */
+    public int getRadius() {
+        return radius;
+    }
+
+    /**
+     * Returns how fast the defence flies
+     * @return the speed, 0 for towers that stand still
+     */
+    public double getSpeed() {
+        return speed;
+    }
+}
@@ -1,118 +1,221 @@
 import bagel.util.Point;
-import bagel.util.Vector2;
+import bagel.util.Rectangle;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
-import java.lang.Math;
 
 /**
- * An enemy of the game
- * Two lines of the move method are from project 1 sample solution
+ * An enemy of the game. Enemies walk the path of the level by distance, using the segment directions and angles
+ * worked out once by the level's PathIndex. The stats of an enemy come from its archetype, which every enemy of the
+ * same type shares.
  */
-public abstract class Enemy extends Sprite implements Moveable{
+public class Enemy extends Sprite implements Moveable{
     /* Constants */
     private static final int START_OF_POLYLINE = 0;
-    private static final int ACCEPTABLE_DISTANCE = 1;
     public static final int CHILDREN_OFFSET = 20;
-    private static final double SPEED_OFFSET = 1; // Added to facilitate slicer movement timings
+    public static final double SPEED_OFFSET = 1; // Added to facilitate slicer movement timings
+    private static final int CHILD_DIRECTIONS = 4;
+    private static final int[] CHILD_X = {-1, 1, 0, 0};
+    private static final int[] CHILD_Y = {0, 0, -1, 1};
 
     /* Attributes */
-    private final List<Point> polyline;
-    private final double speed;
-    private final int penalty;
-    private final int reward;
+    private final EnemyArchetype archetype;
+    private PathIndex path;
     private int health;
     private int currPoint;
+    private double distance;
+    private double offsetX;
+    private double offsetY;
+    private double offsetEnd;
+    private double offsetSpan;
     private boolean completedMap;
     private boolean targeted;
+    private EnemyStore store;
+    private int slot;
+    private long handle;
 
     /**
      * Creates a new enemy at the start of the path
-     * @param polyline the path it walks
-     * @param imageSource the source image
-     * @param speed its speed
-     * @param health its health
-     * @param penalty its penalty
-     * @param reward its reward
-     */
-    public Enemy(List<Point> polyline, String imageSource, double speed, int health, int penalty, int reward){
-        super(polyline.get(0), imageSource);
-        this.polyline = polyline;
-        currPoint = START_OF_POLYLINE;
-        completedMap = false;
-        this.speed = speed;
-        this.health = health;
-        this.penalty = penalty;
-        this.reward = reward;
-        targeted = false;
+     * @param archetype the type of enemy
+     * @param path the path it walks
+     */
+    public Enemy(EnemyArchetype archetype, PathIndex path){
+        this(archetype, path, START_OF_POLYLINE, path.getPolyline().get(START_OF_POLYLINE));
     }
 
     /**
      * Creates a new enemy at the given point of the path
-     * @param polyline the path it walks
+     * @param archetype the type of enemy
+     * @param path the path it walks
+     * @param currPoint the point that the enemy starts at
+     * @param location the location that the enemy spawns at
+     */
+    public Enemy(EnemyArchetype archetype, PathIndex path, int currPoint, Point location){
+        super(location, archetype.getImageSource());
+        this.archetype = archetype;
+        reset(path, currPoint, location);
+    }
+
+    /**
+     * Puts a pooled enemy back into play at full health at the given point of the path
+     * @param path the path it walks
      * @param currPoint the point that the enemy starts at
      * @param location the location that the enemy spawns at
-     * @param imageSource the source image
-     * @param speed its speed
-     * @param health its health
-     * @param penalty its penalty
-     * @param reward its reward
-     */
-    public Enemy(List<Point> polyline, int currPoint, Point location, String imageSource, double speed, int health, int penalty, int reward){
-        super(location, imageSource);
-        this.polyline = polyline;
-        this.currPoint = currPoint;
+     */
+    public void reset(PathIndex path, int currPoint, Point location){
+        this.path = path;
+        this.currPoint = path.segmentOf(currPoint);
+        setCentre(location);
+        setAngle(0);
+        health = archetype.getHealth();
         completedMap = false;
-        this.speed = speed;
-        this.health = health;
-        this.penalty = penalty;
-        this.reward = reward;
+        targeted = false;
     }
 
     /**
-     * Calculates the amount the enemy has to move per frame to the next point and updates the location of the sprite.
+     * Hands the state of the enemy over to an enemy store, after which the store is the only copy of it
+     * @param store the store of the level
+     */
+    public void attach(EnemyStore store){
+        slot = store.add(this);
+        this.store = store;
+    }
+
+    /**
+     * Takes the state of the enemy back from its enemy store and frees its slot
+     */
+    public void detach(){
+        if (store == null){
+            return;
+        }
+        EnemyStore attachedTo = store;
+        int attachedSlot = slot;
+        store = null;
+        getRect().moveTo(new Point(attachedTo.getLeft(attachedSlot), attachedTo.getTop(attachedSlot)));
+        super.setAngle(attachedTo.getAngle(attachedSlot));
+        health = attachedTo.getHealth(attachedSlot);
+        currPoint = attachedTo.getSegment(attachedSlot);
+        distance = attachedTo.getProgress(attachedSlot);
+        offsetX = attachedTo.getOffsetX(attachedSlot);
+        offsetY = attachedTo.getOffsetY(attachedSlot);
+        offsetEnd = attachedTo.getOffsetEnd(attachedSlot);
+        offsetSpan = attachedTo.getOffsetSpan(attachedSlot);
+        completedMap = attachedTo.getCompletedMap(attachedSlot);
+        attachedTo.remove(attachedSlot);
+    }
+
+    /**
+     * Writes the state of the enemy: where it is, where it is facing, its health and how far along the path it is
+     * @param out where to write the state
+     * @throws IOException when the state cannot be written
+     */
+    public void writeState(DataOutput out) throws IOException {
+        Rectangle rect = getRect();
+        out.writeDouble(rect.left());
+        out.writeDouble(rect.top());
+        out.writeDouble(getAngle());
+        out.writeInt(getHealth());
+        out.writeInt(getCurrPoint());
+        out.writeDouble(getDistance());
+        out.writeDouble(getOffsetX());
+        out.writeDouble(getOffsetY());
+        out.writeDouble(getOffsetEnd());
+        out.writeDouble(getOffsetSpan());
+        out.writeBoolean(getCompletedMap());
+        out.writeBoolean(targeted);
+    }
+
+    /**
+     * Reads back the state written by writeState into an enemy that has been reset onto the path and is not yet
+     * attached to a store
+     * @param in where to read the state from
+     * @param version the version of the snapshot the state is in
+     * @throws IOException when the state cannot be read
+     */
+    public void readState(DataInput in, int version) throws IOException {
+        getRect().moveTo(new Point(in.readDouble(), in.readDouble()));
+        super.setAngle(in.readDouble());
+        health = in.readInt();
+        currPoint = in.readInt();
+        distance = in.readDouble();
+        offsetX = in.readDouble();
+        offsetY = in.readDouble();
+        offsetEnd = in.readDouble();
+        offsetSpan = in.readDouble();
+        completedMap = in.readBoolean();
+        targeted = in.readBoolean();
+    }
+
+    /**
+     * Tells the enemy its state has been moved to another slot of its store
+     * @param slot the new slot
+     */
+    public void moveSlot(int slot){
+        this.slot = slot;
+    }
+
+    /**
+     * Moves the enemy along the path by its speed and updates the location of the sprite. The position comes straight
+     * from the distance walked, so an enemy can never overshoot a corner however fast the game runs.
      */
     @Override
     public void move(){
-        int nextPoint = currPoint + 1;
-        if (nextPoint < polyline.size()) {
-            double dx = polyline.get(nextPoint).x - getCentre().x;
-            double dy = polyline.get(nextPoint).y - getCentre().y;
-            double distance = Math.sqrt(dx * dx + dy * dy);
-            double totalSpeed = SPEED_OFFSET * speed * ShadowDefend.getTimescale();
-            double vx = totalSpeed * dx / (distance);
-            double vy = totalSpeed * dy / (distance);
-
-            // If the enemy is within an acceptable distance to the next point, it has reached the next point
-            if (Math.abs((int)dx)/(totalSpeed) <= ACCEPTABLE_DISTANCE &&
-                    Math.abs((int)dy)/(totalSpeed) <= ACCEPTABLE_DISTANCE) {
-                currPoint++;
-            }
-
-            // Implementation of these two lines are from sample project 1 solution
-            super.move(new Vector2(vx, vy));
-            setAngle(Math.atan2(dy, dx));
+        if (store != null){
+            store.move(slot);
+            return;
         }
-
-        else{
+        if (completedMap){
+            return;
+        }
+        distance += SPEED_OFFSET * archetype.getSpeed();
+        if (distance >= path.getLength()){
+            distance = path.getLength();
             completedMap = true;
+            return;
         }
+        currPoint = path.segmentAt(distance, currPoint);
+        double offsetLeft = PathIndex.offsetLeft(distance, offsetEnd, offsetSpan);
+        getRect().moveTo(new Point(path.xAt(currPoint, distance) + offsetX * offsetLeft - archetype.getHalfWidth(),
+                path.yAt(currPoint, distance) + offsetY * offsetLeft - archetype.getHalfHeight()));
+        super.setAngle(path.getAngle(currPoint));
     }
 
     /**
-     * Gets a list of children enemies an enemy spawns
-     * @param level the level to spawn the children
-     * @return the list of enemies
+     * Spawns the children of an enemy that has died around its last location: left, right, above and below it,
+     * then the same again further out for any more
+     * @param level the level to take the children from
+     * @param children the list to add the children to
      */
-    public abstract List<Enemy> spawnChild(Level level);
+    public void spawnChild(Level level, List<Enemy> children) {
+        EnemyArchetype child = archetype.getChild();
+        Point centre = getCentre();
+        for (int i = 0; i < archetype.getChildren(); i++){
+            double offset = CHILDREN_OFFSET * (i / CHILD_DIRECTIONS + 1);
+            int direction = i % CHILD_DIRECTIONS;
+            children.add(level.obtainEnemy(child, getCurrPoint(), new Point(centre.x + CHILD_X[direction] * offset,
+                    centre.y + CHILD_Y[direction] * offset)));
+        }
+    }
 
     /* Getters and setters */
 
+    /**
+     * Returns the layer of the render queue enemies are drawn in, above the buy panel
+     * @return the enemy layer
+     */
+    @Override
+    public int getLayer() {
+        return RenderQueue.ENEMIES;
+    }
+
     /**
      * Returns a boolean value to check if the entire polyline has been traversed
      * @return true if the enemy has traversed the entire polyline
      */
     public boolean getCompletedMap(){
-        return completedMap;
+        return store != null ? store.getCompletedMap(slot) : completedMap;
     }
 
     /**
@@ -120,7 +223,7 @@ public abstract class Enemy extends Sprite implements Moveable{
      * @return true if the enemy has died
      */
     public boolean isKilled(){
-        return health <= 0;
+        return getHealth() <= 0;
     }
 
     /**
@@ -128,7 +231,28 @@ public abstract class Enemy extends Sprite implements Moveable{
      * @param damage the damage taken
      */
     public void deductHealth(int damage){
-        health -= damage;
+        if (store != null){
+            store.deductHealth(slot, damage);
+        }
+        else{
+            health -= damage;
+        }
+    }
+
+    /**
+     * Returns the health the enemy has left
+     * @return the health of the enemy
+     */
+    public int getHealth() {
+        return store != null ? store.getHealth(slot) : health;
+    }
+
+    /**
+     * Returns the speed of the enemy
+     * @return the speed of the enemy
+     */
+    public double getSpeed() {
+        return archetype.getSpeed();
     }
 
     /**
@@ -136,7 +260,7 @@ public abstract class Enemy extends Sprite implements Moveable{
      * @return the reward amount
      */
     public int getReward() {
-        return reward;
+        return archetype.getReward();
     }
 
     /**
@@ -144,7 +268,15 @@ public abstract class Enemy extends Sprite implements Moveable{
      * @return the penalty amount
      */
     public int getPenalty() {
-        return penalty;
+        return archetype.getPenalty();
+    }
+
+    /**
+     * Returns the archetype of the enemy, the stats it shares with every enemy of its type
+     * @return the archetype
+     */
+    public EnemyArchetype getArchetype() {
+        return archetype;
     }
 
     /**
@@ -152,7 +284,7 @@ public abstract class Enemy extends Sprite implements Moveable{
      * @return true if it has completed its mission
      */
     public boolean getCompleted(){
-        return completedMap || health <= 0;
+        return getCompletedMap() || isKilled();
     }
 
     /**
@@ -160,7 +292,55 @@ public abstract class Enemy extends Sprite implements Moveable{
      * @return the polyline
      */
     public List<Point> getPolyline() {
-        return polyline;
+        return path.getPolyline();
+    }
+
+    /**
+     * Returns how far along the path the enemy is
+     * @return the distance walked along the path
+     */
+    public double getDistance() {
+        return store != null ? store.getProgress(slot) : distance;
+    }
+
+    /**
+     * Returns how far the enemy was from the path when it spawned, the most it can be off the path
+     * @return the length of the offset from the path
+     */
+    public double getOffsetLength() {
+        return Math.hypot(getOffsetX(), getOffsetY());
+    }
+
+    /**
+     * Returns the x component of the offset from the path the enemy spawned with
+     * @return the x offset
+     */
+    public double getOffsetX() {
+        return store != null ? store.getOffsetX(slot) : offsetX;
+    }
+
+    /**
+     * Returns the y component of the offset from the path the enemy spawned with
+     * @return the y offset
+     */
+    public double getOffsetY() {
+        return store != null ? store.getOffsetY(slot) : offsetY;
+    }
+
+    /**
+     * Returns the distance along the path at which the offset of the enemy is gone
+     * @return the arc length at which the enemy is back on the path
+     */
+    public double getOffsetEnd() {
+        return store != null ? store.getOffsetEnd(slot) : offsetEnd;
+    }
+
+    /**
+     * Returns the distance along the path over which the offset of the enemy shrinks
+     * @return the arc length over which the offset shrinks
+     */
+    public double getOffsetSpan() {
+        return store != null ? store.getOffsetSpan(slot) : offsetSpan;
     }
 
     /**
@@ -168,7 +348,7 @@ public abstract class Enemy extends Sprite implements Moveable{
      * @return the point on the polyline
      */
     public int getCurrPoint() {
-        return currPoint;
+        return store != null ? store.getSegment(slot) : currPoint;
     }
 
     /**
@@ -186,4 +366,121 @@ public abstract class Enemy extends Sprite implements Moveable{
     public void setTargeted(boolean targeted) {
         this.targeted = targeted;
     }
+
+    /**
+     * Returns the handle of the enemy in the level it is in
+     * @return the handle, HandleTable.NONE while the enemy is in its pool
+     */
+    public long getHandle() {
+        return handle;
+    }
+
+    /**
+     * Sets the handle of the enemy in the level it is in
+     * @param handle the handle
+     */
+    public void setHandle(long handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * Returns a rectangle indicating the bounding box of the enemy, built from its store when it is attached to one
+     * @return the bounding box of the enemy
+     */
+    @Override
+    public Rectangle getRect() {
+        if (store == null){
+            return super.getRect();
+        }
+        Rectangle rect = super.getRect();
+        return new Rectangle(store.getLeft(slot), store.getTop(slot), rect.right() - rect.left(),
+                rect.bottom() - rect.top());
+    }
+
+    /**
+     * Returns a point indicating the centre of the enemy
+     * @return the centre point
+     */
+    @Override
+    public Point getCentre() {
+        return store != null ? new Point(store.getCentreX(slot), store.getCentreY(slot)) : super.getCentre();
+    }
+
+    /**
+     * Returns the x coordinate of the centre of the enemy without creating a point, the same value as getCentre().x
+     * @return the x coordinate of the centre
+     */
+    public double getCentreX() {
+        return store != null ? store.getCentreX(slot) : super.getRect().left() + archetype.getHalfWidth();
+    }
+
+    /**
+     * Returns the y coordinate of the centre of the enemy without creating a point, the same value as getCentre().y
+     * @return the y coordinate of the centre
+     */
+    public double getCentreY() {
+        return store != null ? store.getCentreY(slot) : super.getRect().top() + archetype.getHalfHeight();
+    }
+
+    /**
+     * Moves the centre of the enemy to a point, measuring how far along its current segment of the path the point is
+     * and how far off the path it is
+     * @param point the new centre of the enemy
+     */
+    @Override
+    public void setCentre(Point point) {
+        int segment = getCurrPoint();
+        distance = path.progressOf(segment, point.x, point.y);
+        offsetX = point.x - path.xAt(segment, distance);
+        offsetY = point.y - path.yAt(segment, distance);
+
+        // Walk back onto the path by the end of the segment, but no more steeply than at 45 degrees
+        offsetSpan = Math.max(path.getSegmentEnd(segment) - distance, Math.hypot(offsetX, offsetY));
+        offsetEnd = distance + offsetSpan;
+        if (store != null){
+            store.place(slot, point, distance, offsetX, offsetY, offsetEnd, offsetSpan);
+        }
+        else{
+            getRect().moveTo(new Point(point.x - archetype.getHalfWidth(), point.y - archetype.getHalfHeight()));
+        }
+    }
+
+    /**
+     * Returns the angle that the enemy faces
+     * @return the angle of the enemy
+     */
+    @Override
+    public double getAngle() {
+        return store != null ? store.getAngle(slot) : super.getAngle();
+    }
+
+    /**
+     * Sets the angle that the enemy faces
+     * @param angle the angle of the enemy
+     */
+    @Override
+    public void setAngle(double angle) {
+        if (store != null){
+            store.setAngle(slot, angle);
+        }
+        else{
+            super.setAngle(angle);
+        }
+    }
+
+    /**
+     * Returns the slot of the enemy in its store
+     * @return the slot, only meaningful while the enemy is attached
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Returns whether the state of the enemy is kept in an enemy store
+     * @return true if the enemy is attached to a store
+     */
+    public boolean isAttached() {
+        return store != null;
+    }
 }
@@ -0,0 +1,153 @@
+/**
+ * The stats shared by every enemy of one type, read from the archetype file. An enemy keeps only its archetype and
+ * the state that changes as it walks the path, so a wave of hundreds of slicers shares one copy of everything else.
+ */
+public final class EnemyArchetype {
+    /* Attributes */
+    private final int id;
+    private final String name;
+    private final String imageSource;
+    private final double speed;
+    private final int health;
+    private final int penalty;
+    private final int reward;
+    private final String childName;
+    private final int children;
+    private final double halfWidth;
+    private final double halfHeight;
+    private EnemyArchetype child;
+
+    /**
+     * Creates an enemy archetype
+     * @param id the number of the archetype, its position among the enemies of the archetype file
+     * @param name the name wave files use for it
+     * @param imageSource its image
+     * @param speed its speed
+     * @param health its health
+     * @param penalty the lives the player loses when it gets to the end of the path
+     * @param reward the money the player gets for killing it
+     * @param childName the name of the archetype it splits into when killed, null for none
+     * @param children how many children it splits into
+     */
+    public EnemyArchetype(int id, String name, String imageSource, double speed, int health, int penalty, int reward,
+                          String childName, int children){
+        this.id = id;
+        this.name = name;
+        this.imageSource = imageSource;
+        this.speed = speed;
+        this.health = health;
+        this.penalty = penalty;
+        this.reward = reward;
+        this.childName = childName;
+        this.children = childName == null ? 0 : children;
+        ImageBounds bounds = ImageBounds.of(imageSource);
+        halfWidth = bounds.getWidth() / 2.0;
+        halfHeight = bounds.getHeight() / 2.0;
+    }
+
+    /**
+     * Links the archetype to the archetype of its children, once every archetype of the file has been read
+     * @param child the archetype of its children
+     */
+    void setChild(EnemyArchetype child){
+        this.child = child;
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the number of the archetype, which snapshots and level pools know it by
+     * @return the id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the name wave files use for the archetype
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the image of the enemy
+     * @return the image file source
+     */
+    public String getImageSource() {
+        return imageSource;
+    }
+
+    /**
+     * Returns the speed of the enemy
+     * @return the speed
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Returns the health the enemy starts with
+     * @return the health
+     */
+    public int getHealth() {
+        return health;
+    }
+
+    /**
+     * Returns the lives the player loses when the enemy gets to the end of the path
+     * @return the penalty
+     */
+    public int getPenalty() {
+        return penalty;
+    }
+
+    /**
+     * Returns the money the player gets for killing the enemy
+     * @return the reward
+     */
+    public int getReward() {
+        return reward;
+    }
+
+    /**
+     * Returns the name of the archetype the enemy splits into when killed
+     * @return the name of its children, null if it has none
+     */
+    public String getChildName() {
+        return childName;
+    }
+
+    /**
+     * Returns the archetype the enemy splits into when killed
+     * @return the archetype of its children, null if it has none
+     */
+    public EnemyArchetype getChild() {
+        return child;
+    }
+
+    /**
+     * Returns how many children the enemy splits into when killed
+     * @return the number of children
+     */
+    public int getChildren() {
+        return children;
+    }
+
+    /**
+     * Returns half the width of the image of the enemy
+     * @return half the width
+     */
+    public double getHalfWidth() {
+        return halfWidth;
+    }
+
+    /**
+     * Returns half the height of the image of the enemy
+     * @return half the height
+     */
+    public double getHalfHeight() {
+        return halfHeight;
+    }
+}
@@ -0,0 +1,346 @@
+import bagel.util.Point;
+
+import java.util.Arrays;
+
+/**
+ * Structure of arrays storage for the state of the enemies of a level. Each attached enemy owns a slot in a set of
+ * parallel primitive arrays, so moving every enemy is one pass over contiguous memory instead of chasing pointers
+ * through each enemy's bounding box. Positions are kept as the top left of the bounding box, the same way Rectangle
+ * keeps them, and worked out from the distance walked with the same arithmetic as Enemy.move, so both backends produce
+ * exactly the same movement.
+ */
+public class EnemyStore {
+    /* Constants */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /* Attributes */
+    private EnemyArchetype[] archetypes = new EnemyArchetype[0];
+    private double[] archetypeSpeed = new double[0];
+    private double[] archetypeWidth = new double[0];
+    private double[] archetypeHeight = new double[0];
+    private Enemy[] owners = new Enemy[INITIAL_CAPACITY];
+    private double[] left = new double[INITIAL_CAPACITY];
+    private double[] top = new double[INITIAL_CAPACITY];
+    private double[] angle = new double[INITIAL_CAPACITY];
+    private double[] progress = new double[INITIAL_CAPACITY];
+    private int[] health = new int[INITIAL_CAPACITY];
+    private int[] segment = new int[INITIAL_CAPACITY];
+    private double[] offsetX = new double[INITIAL_CAPACITY];
+    private double[] offsetY = new double[INITIAL_CAPACITY];
+    private double[] offsetEnd = new double[INITIAL_CAPACITY];
+    private double[] offsetSpan = new double[INITIAL_CAPACITY];
+    private int[] archetype = new int[INITIAL_CAPACITY];
+    private boolean[] completedMap = new boolean[INITIAL_CAPACITY];
+    private int size;
+    private PathIndex path;
+
+    /**
+     * Sets the path the enemies of the level walk
+     * @param path the path
+     */
+    public void setPath(PathIndex path){
+        this.path = path;
+    }
+
+    /**
+     * Gives an enemy a slot, copying its current state into the arrays
+     * @param enemy the enemy
+     * @return the slot of the enemy
+     */
+    public int add(Enemy enemy){
+        if (size == owners.length){
+            grow();
+        }
+        int slot = size++;
+        owners[slot] = enemy;
+        archetype[slot] = archetypeOf(enemy);
+        left[slot] = enemy.getRect().left();
+        top[slot] = enemy.getRect().top();
+        angle[slot] = enemy.getAngle();
+        health[slot] = enemy.getHealth();
+        segment[slot] = enemy.getCurrPoint();
+        completedMap[slot] = enemy.getCompletedMap();
+        progress[slot] = enemy.getDistance();
+        offsetX[slot] = enemy.getOffsetX();
+        offsetY[slot] = enemy.getOffsetY();
+        offsetEnd[slot] = enemy.getOffsetEnd();
+        offsetSpan[slot] = enemy.getOffsetSpan();
+        return slot;
+    }
+
+    /**
+     * Frees a slot by moving the last enemy into it
+     * @param slot the slot to free
+     */
+    public void remove(int slot){
+        int last = --size;
+        if (slot != last){
+            owners[slot] = owners[last];
+            left[slot] = left[last];
+            top[slot] = top[last];
+            angle[slot] = angle[last];
+            progress[slot] = progress[last];
+            health[slot] = health[last];
+            segment[slot] = segment[last];
+            offsetX[slot] = offsetX[last];
+            offsetY[slot] = offsetY[last];
+            offsetEnd[slot] = offsetEnd[last];
+            offsetSpan[slot] = offsetSpan[last];
+            archetype[slot] = archetype[last];
+            completedMap[slot] = completedMap[last];
+            owners[slot].moveSlot(slot);
+        }
+        owners[last] = null;
+    }
+
+    /**
+     * Moves every enemy one frame along the path
+     */
+    public void moveAll(){
+        for (int slot = 0; slot < size; slot++){
+            move(slot);
+        }
+    }
+
+    /**
+     * Moves an enemy one frame along the path, the same way Enemy.move does
+     * @param slot the slot of the enemy
+     */
+    public void move(int slot){
+        if (completedMap[slot]){
+            return;
+        }
+        int id = archetype[slot];
+        double distance = progress[slot] + Enemy.SPEED_OFFSET * archetypeSpeed[id];
+        if (distance >= path.getLength()){
+            progress[slot] = path.getLength();
+            completedMap[slot] = true;
+            return;
+        }
+        int current = path.segmentAt(distance, segment[slot]);
+        double offsetLeft = PathIndex.offsetLeft(distance, offsetEnd[slot], offsetSpan[slot]);
+        progress[slot] = distance;
+        segment[slot] = current;
+        left[slot] = path.xAt(current, distance) + offsetX[slot] * offsetLeft - archetypeWidth[id] / 2;
+        top[slot] = path.yAt(current, distance) + offsetY[slot] * offsetLeft - archetypeHeight[id] / 2;
+        angle[slot] = path.getAngle(current);
+    }
+
+    /**
+     * Returns the archetype id of an enemy, copying the stats of its archetype the first time it is seen
+     * @param enemy the enemy
+     * @return the archetype id
+     */
+    private int archetypeOf(Enemy enemy){
+        EnemyArchetype type = enemy.getArchetype();
+        int id = type.getId();
+        if (id >= archetypes.length){
+            archetypes = Arrays.copyOf(archetypes, id + 1);
+            archetypeSpeed = Arrays.copyOf(archetypeSpeed, id + 1);
+            archetypeWidth = Arrays.copyOf(archetypeWidth, id + 1);
+            archetypeHeight = Arrays.copyOf(archetypeHeight, id + 1);
+        }
+        if (archetypes[id] != type){
+            archetypes[id] = type;
+            archetypeSpeed[id] = type.getSpeed();
+            archetypeWidth[id] = type.getHalfWidth() * 2;
+            archetypeHeight[id] = type.getHalfHeight() * 2;
+        }
+        return id;
+    }
+
+    /**
+     * Doubles the capacity of every array
+     */
+    private void grow(){
+        int capacity = owners.length * 2;
+        owners = Arrays.copyOf(owners, capacity);
+        left = Arrays.copyOf(left, capacity);
+        top = Arrays.copyOf(top, capacity);
+        angle = Arrays.copyOf(angle, capacity);
+        progress = Arrays.copyOf(progress, capacity);
+        health = Arrays.copyOf(health, capacity);
+        segment = Arrays.copyOf(segment, capacity);
+        offsetX = Arrays.copyOf(offsetX, capacity);
+        offsetY = Arrays.copyOf(offsetY, capacity);
+        offsetEnd = Arrays.copyOf(offsetEnd, capacity);
+        offsetSpan = Arrays.copyOf(offsetSpan, capacity);
+        archetype = Arrays.copyOf(archetype, capacity);
+        completedMap = Arrays.copyOf(completedMap, capacity);
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the x coordinate of the centre of an enemy
+     * @param slot the slot of the enemy
+     * @return the x coordinate
+     */
+    public double getCentreX(int slot) {
+        return left[slot] + archetypeWidth[archetype[slot]] / 2;
+    }
+
+    /**
+     * Returns the y coordinate of the centre of an enemy
+     * @param slot the slot of the enemy
+     * @return the y coordinate
+     */
+    public double getCentreY(int slot) {
+        return top[slot] + archetypeHeight[archetype[slot]] / 2;
+    }
+
+    /**
+     * Moves the centre of an enemy to a point, along with where that point is relative to the path
+     * @param slot the slot of the enemy
+     * @param point the new centre
+     * @param distance how far along the path the point is
+     * @param offsetX the x component of the offset of the point from the path
+     * @param offsetY the y component of the offset of the point from the path
+     * @param offsetEnd the distance along the path at which the offset is gone
+     * @param offsetSpan the distance along the path over which the offset shrinks
+     */
+    public void place(int slot, Point point, double distance, double offsetX, double offsetY, double offsetEnd,
+                      double offsetSpan) {
+        left[slot] = point.x - archetypeWidth[archetype[slot]] / 2;
+        top[slot] = point.y - archetypeHeight[archetype[slot]] / 2;
+        progress[slot] = distance;
+        this.offsetX[slot] = offsetX;
+        this.offsetY[slot] = offsetY;
+        this.offsetEnd[slot] = offsetEnd;
+        this.offsetSpan[slot] = offsetSpan;
+    }
+
+    /**
+     * Returns the left edge of the bounding box of an enemy
+     * @param slot the slot of the enemy
+     * @return the left edge
+     */
+    public double getLeft(int slot) {
+        return left[slot];
+    }
+
+    /**
+     * Returns the top edge of the bounding box of an enemy
+     * @param slot the slot of the enemy
+     * @return the top edge
+     */
+    public double getTop(int slot) {
+        return top[slot];
+    }
+
+    /**
+     * Returns the angle an enemy faces
+     * @param slot the slot of the enemy
+     * @return the angle
+     */
+    public double getAngle(int slot) {
+        return angle[slot];
+    }
+
+    /**
+     * Sets the angle an enemy faces
+     * @param slot the slot of the enemy
+     * @param angle the angle
+     */
+    public void setAngle(int slot, double angle) {
+        this.angle[slot] = angle;
+    }
+
+    /**
+     * Returns how far along the path an enemy is
+     * @param slot the slot of the enemy
+     * @return the arc length along the path
+     */
+    public double getProgress(int slot) {
+        return progress[slot];
+    }
+
+    /**
+     * Returns the health of an enemy
+     * @param slot the slot of the enemy
+     * @return the health
+     */
+    public int getHealth(int slot) {
+        return health[slot];
+    }
+
+    /**
+     * Deducts health from an enemy
+     * @param slot the slot of the enemy
+     * @param damage the damage taken
+     */
+    public void deductHealth(int slot, int damage) {
+        health[slot] -= damage;
+    }
+
+    /**
+     * Returns the x component of the offset from the path an enemy spawned with
+     * @param slot the slot of the enemy
+     * @return the x offset
+     */
+    public double getOffsetX(int slot) {
+        return offsetX[slot];
+    }
+
+    /**
+     * Returns the y component of the offset from the path an enemy spawned with
+     * @param slot the slot of the enemy
+     * @return the y offset
+     */
+    public double getOffsetY(int slot) {
+        return offsetY[slot];
+    }
+
+    /**
+     * Returns the distance along the path at which the offset of an enemy is gone
+     * @param slot the slot of the enemy
+     * @return the arc length at which the enemy is back on the path
+     */
+    public double getOffsetEnd(int slot) {
+        return offsetEnd[slot];
+    }
+
+    /**
+     * Returns the distance along the path over which the offset of an enemy shrinks
+     * @param slot the slot of the enemy
+     * @return the arc length over which the offset shrinks
+     */
+    public double getOffsetSpan(int slot) {
+        return offsetSpan[slot];
+    }
+
+    /**
+     * Returns the polyline point an enemy last reached
+     * @param slot the slot of the enemy
+     * @return the point on the polyline
+     */
+    public int getSegment(int slot) {
+        return segment[slot];
+    }
+
+    /**
+     * Returns whether an enemy has walked the whole path
+     * @param slot the slot of the enemy
+     * @return true if the enemy has traversed the entire polyline
+     */
+    public boolean getCompletedMap(int slot) {
+        return completedMap[slot];
+    }
+
+    /**
+     * Returns the enemy in a slot
+     * @param slot the slot
+     * @return the enemy
+     */
+    public Enemy getOwner(int slot) {
+        return owners[slot];
+    }
+
+    /**
+     * Returns the number of enemies in the store
+     * @return the number of enemies
+     */
+    public int getSize() {
+        return size;
+    }
+}
@@ -1,25 +1,81 @@
 import bagel.util.Point;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
 /**
  * An explosive dropped by an air support
  */
-public class Explosive extends Projectile {
+public class Explosive extends Projectile implements AreaEffect {
     /* Constants */
     private static final int DELAY = 120;
-    private static final int RADIUS = 200;
 
     /* Attributes */
     private int timer;
+    private int radius;
 
     /**
      * Creates a new explosive
      * @param point the location to create it
      * @param imageSource its image source
      * @param damage the damage it does
+     * @param radius the radius of its blast
+     */
+    public Explosive(Point point, String imageSource, int damage, int radius) {
+        super(point, imageSource, HandleTable.NONE, damage);
+        timer = 0;
+        this.radius = radius;
+    }
+
+    /**
+     * Puts a pooled explosive back into play with its fuse reset
+     * @param point the location to drop it
+     * @param damage the damage it does
+     * @param radius the radius of its blast
      */
-    public Explosive(Point point, String imageSource, int damage) {
-        super(point, imageSource, null, damage);
+    public void reset(Point point, int damage, int radius) {
+        reset(point, HandleTable.NONE, damage);
         timer = 0;
+        this.radius = radius;
+    }
+
+    /**
+     * Writes the state of the explosive, along with how long its fuse has been burning and the radius of its blast
+     * @param out where to write the state
+     * @param enemyIndex the index of every enemy of the level by its handle
+     * @throws IOException when the state cannot be written
+     */
+    @Override
+    public void writeState(DataOutput out, Map<Long, Integer> enemyIndex) throws IOException {
+        super.writeState(out, enemyIndex);
+        out.writeInt(timer);
+        out.writeInt(radius);
+    }
+
+    /**
+     * Reads back the state written by writeState. Snapshots before version 3 did not write the radius, as every
+     * explosive then had the blast radius of the standard air support.
+     * @param in where to read the state from
+     * @param version the version of the snapshot the state is in
+     * @param enemies the enemies of the level
+     * @throws IOException when the state cannot be read
+     */
+    @Override
+    public void readState(DataInput in, int version, Enemy[] enemies) throws IOException {
+        super.readState(in, version, enemies);
+        timer = in.readInt();
+        radius = version < 3 ? Archetypes.standard().getDefence(Archetypes.AIR_SUPPORT).getRadius() : in.readInt();
+    }
+
+    /**
+     * Explosives do not fly, hence empty method.
+     * @param game the level of the game
+     */
+    @Override
+    public void home(Level game) {
+        // Stays where it was dropped
     }
 
     /**
@@ -27,15 +83,20 @@ public class Explosive extends Projectile {
      * @param game the level of the game
      */
     @Override
-    public void move(Level game) {
-        timer += ShadowDefend.getTimescale();
+    public void resolve(Level game) {
+        timer++;
         if (timer >= DELAY){
-            for (Enemy enemy : game.getLevelEnemy()){
-                if (enemy.getCentre().asVector().sub(getCentre().asVector()).length() <= RADIUS){
-                    enemy.deductHealth(getDamage());
-                }
-            }
+            game.getEnemyGrid().forEachWithin(getCentre().x, getCentre().y, radius, this);
             setHit();
         }
     }
+
+    /**
+     * Damages an enemy caught in the explosion
+     * @param enemy the enemy within the blast radius
+     */
+    @Override
+    public void apply(Enemy enemy) {
+        enemy.deductHealth(getDamage());
+    }
 }
@@ -0,0 +1,251 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Times the phases of every frame into latency histograms and samples the entity counts and the allocation rate of
+ * the game thread. Latencies are gathered over a window of frames; when the window closes its p50, p99 and max are
+ * kept for the overlay and for headless runs to read, and the histograms start again.
+ * Timing a phase costs two calls to System.nanoTime, and nothing at all while the metrics are disabled.
+ */
+public class FrameMetrics {
+    /* Constants */
+    private static final int WINDOW_FRAMES = 60;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final FramePhase[] PHASES = FramePhase.values();
+
+    /* Attributes */
+    private final LatencyHistogram[] histograms = new LatencyHistogram[PHASES.length];
+    private final long[] p50 = new long[PHASES.length];
+    private final long[] p99 = new long[PHASES.length];
+    private final long[] max = new long[PHASES.length];
+    private final long[] counts = new long[PHASES.length];
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private boolean enabled;
+    private int frames;
+    private int windows;
+    private long windowStart;
+    private long allocatedAtStart;
+    private double allocationRate;
+    private double frameRate;
+    private int enemies;
+    private int defences;
+    private int projectiles;
+
+    /**
+     * Creates disabled metrics
+     */
+    public FrameMetrics(){
+        for (int i = 0; i < PHASES.length; i++){
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Starts timing a phase
+     * @return the time the phase started, 0 when disabled
+     */
+    public long start(){
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the latency of a phase that started at the given time
+     * @param phase the phase
+     * @param start the time the phase started, from start or the previous record
+     * @return the time now, so the next phase can start from it, 0 when disabled
+     */
+    public long record(FramePhase phase, long start){
+        if (!enabled){
+            return 0;
+        }
+        long now = System.nanoTime();
+        histograms[phase.ordinal()].record(now - start);
+        return now;
+    }
+
+    /**
+     * Counts a frame, closing the window once it has WINDOW_FRAMES frames in it
+     * @param level the level to count the entities of
+     */
+    public void endFrame(Level level){
+        if (enabled && ++frames >= WINDOW_FRAMES){
+            closeWindow(level);
+        }
+    }
+
+    /**
+     * Keeps the percentiles of the window so far, samples the entity counts and allocation rate, and starts a new
+     * window. Headless runs call this whenever they want a reading.
+     * @param level the level to count the entities of
+     */
+    public void closeWindow(Level level){
+        long now = System.nanoTime();
+        long allocated = allocatedBytes();
+        double seconds = (now - windowStart) / NANOS_PER_SECOND;
+        if (windowStart != 0 && seconds > 0){
+            allocationRate = allocated >= 0 ? (allocated - allocatedAtStart) / seconds : -1;
+            frameRate = frames / seconds;
+        }
+        for (int i = 0; i < PHASES.length; i++){
+            p50[i] = histograms[i].percentile(0.5);
+            p99[i] = histograms[i].percentile(0.99);
+            max[i] = histograms[i].getMax();
+            counts[i] = histograms[i].getCount();
+            histograms[i].reset();
+        }
+        enemies = level.getLevelEnemy().size();
+        defences = level.getLevelDefence().size();
+        projectiles = level.getLevelProjectiles().size();
+        frames = 0;
+        windows++;
+        windowStart = now;
+        allocatedAtStart = allocated;
+    }
+
+    /**
+     * Returns the number of bytes the calling thread has allocated, where the JVM can tell
+     * @return the bytes allocated, -1 if the JVM cannot tell
+     */
+    private long allocatedBytes(){
+        if (threads instanceof com.sun.management.ThreadMXBean){
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Describes the last window, one line per phase that ran in it, for headless runs to print
+     * @return the report
+     */
+    public String report(){
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%.0f fps, %d enemies, %d defences, %d projectiles, %.1f MB/s allocated%n",
+                frameRate, enemies, defences, projectiles, allocationRate / (1 << 20)));
+        for (FramePhase phase : PHASES){
+            if (getCount(phase) > 0){
+                report.append(String.format("%-17s p50 %8.1f us  p99 %8.1f us  max %8.1f us  (%d)%n", phase.getName(),
+                        getP50(phase) / 1e3, getP99(phase) / 1e3, getMax(phase) / 1e3, getCount(phase)));
+            }
+        }
+        return report.toString();
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns a boolean value indicating whether phases are being timed
+     * @return true if the metrics are enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns timing on or off. Turning it on starts a fresh window.
+     * @param enabled true to time phases
+     */
+    public void setEnabled(boolean enabled) {
+        if (enabled && !this.enabled){
+            for (LatencyHistogram histogram : histograms){
+                histogram.reset();
+            }
+            frames = 0;
+            windowStart = System.nanoTime();
+            allocatedAtStart = allocatedBytes();
+        }
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the histogram of a phase for the window in progress
+     * @param phase the phase
+     * @return the histogram
+     */
+    public LatencyHistogram getHistogram(FramePhase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    /**
+     * Returns the median latency of a phase in the last window
+     * @param phase the phase
+     * @return the latency in nanoseconds
+     */
+    public long getP50(FramePhase phase) {
+        return p50[phase.ordinal()];
+    }
+
+    /**
+     * Returns the 99th percentile latency of a phase in the last window
+     * @param phase the phase
+     * @return the latency in nanoseconds
+     */
+    public long getP99(FramePhase phase) {
+        return p99[phase.ordinal()];
+    }
+
+    /**
+     * Returns the largest latency of a phase in the last window
+     * @param phase the phase
+     * @return the latency in nanoseconds
+     */
+    public long getMax(FramePhase phase) {
+        return max[phase.ordinal()];
+    }
+
+    /**
+     * Returns the number of times a phase ran in the last window
+     * @param phase the phase
+     * @return the number of runs
+     */
+    public long getCount(FramePhase phase) {
+        return counts[phase.ordinal()];
+    }
+
+    /**
+     * Returns the number of windows closed so far, so readers can tell when the numbers have changed
+     * @return the number of windows
+     */
+    public int getWindows() {
+        return windows;
+    }
+
+    /**
+     * Returns the rate the game thread allocated memory at in the last window
+     * @return the bytes allocated per second, -1 if the JVM cannot tell
+     */
+    public double getAllocationRate() {
+        return allocationRate;
+    }
+
+    /**
+     * Returns the number of frames per second in the last window
+     * @return the frame rate
+     */
+    public double getFrameRate() {
+        return frameRate;
+    }
+
+    /**
+     * Returns the number of enemies in the level when the last window closed
+     * @return the number of enemies
+     */
+    public int getEnemies() {
+        return enemies;
+    }
+
+    /**
+     * Returns the number of defences in the level when the last window closed
+     * @return the number of defences
+     */
+    public int getDefences() {
+        return defences;
+    }
+
+    /**
+     * Returns the number of projectiles in the level when the last window closed
+     * @return the number of projectiles
+     */
+    public int getProjectiles() {
+        return projectiles;
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * The phases of a frame that FrameMetrics times. The tick phases run once per tick, so several times a frame when
+ * the game is sped up; the render phases run once per frame.
+ */
+public enum FramePhase {
+    TICK("tick"),
+    MOVE_DEFENCES("move defences"),
+    SPAWN_WAVE("spawn wave"),
+    MOVE_ENEMIES("move enemies"),
+    DEFENCE_ATTACK("defence attack"),
+    REMOVE_COMPLETED("remove completed"),
+    MAP_DRAW("map draw"),
+    RENDER_DEFENCES("render defences"),
+    RENDER_ENEMIES("render enemies"),
+    BUY_PANEL("buy panel"),
+    STATUS_PANEL("status panel"),
+    FLUSH("flush"),
+    FRAME("frame");
+
+    /* Attributes */
+    private final String name;
+
+    /**
+     * Creates a phase
+     * @param name the name of the phase shown in the overlay
+     */
+    FramePhase(String name){
+        this.name = name;
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the name of the phase shown in the overlay
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * The random numbers of a game, from a SplitMix64 generator. Unlike java.util.Random its whole state is one long that
+ * can be read and set, so a snapshot of a game can carry on with exactly the numbers the game would have drawn.
+ */
+public class GameRandom {
+    /* Constants */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    /* Attributes */
+    private long state;
+
+    /**
+     * Creates a generator
+     * @param seed the seed
+     */
+    public GameRandom(long seed){
+        state = seed;
+    }
+
+    /**
+     * Returns the next random number
+     * @return a random long
+     */
+    public long nextLong(){
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns a random number from 0 up to but not including 1
+     * @return a random double
+     */
+    public double nextDouble(){
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the state of the generator
+     * @return the state
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Sets the state of the generator, so it carries on from where one with that state was
+     * @param state the state
+     */
+    public void setState(long state) {
+        this.state = state;
+    }
+}
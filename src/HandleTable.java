@@ -0,0 +1,102 @@
+import java.util.Arrays;
+
+/**
+ * Generational handles to the entities of a level. A handle packs the slot of an entity with the generation of that
+ * slot when the entity was added; removing the entity bumps the generation, so every handle to it goes stale at once
+ * and can never be mistaken for the next entity given the slot, even when the entity object itself is pooled and
+ * reused. Looking up a handle and removing an entity are constant time.
+ * Lookups only read the table, so they are safe from the parallel phases of a tick as long as nothing is added or
+ * removed during them.
+ * @param <T> the type of entity
+ */
+public class HandleTable<T> {
+    /* Constants */
+    public static final long NONE = 0;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int SLOT_BITS = 32;
+
+    /* Attributes */
+    private Object[] entities = new Object[INITIAL_CAPACITY];
+    private int[] generations = new int[INITIAL_CAPACITY];
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    private int used;
+    private int size;
+
+    /**
+     * Adds an entity to the table
+     * @param entity the entity
+     * @return the handle of the entity, never NONE
+     */
+    public long add(T entity){
+        int slot;
+        if (freeCount > 0){
+            slot = freeSlots[--freeCount];
+        }
+        else{
+            if (used == entities.length){
+                entities = Arrays.copyOf(entities, used * 2);
+                generations = Arrays.copyOf(generations, used * 2);
+                freeSlots = Arrays.copyOf(freeSlots, used * 2);
+            }
+            slot = used++;
+        }
+        // Generations start at 1 so that no live handle is ever NONE
+        if (++generations[slot] == 0){
+            generations[slot] = 1;
+        }
+        entities[slot] = entity;
+        size++;
+        return (long) generations[slot] << SLOT_BITS | slot;
+    }
+
+    /**
+     * Returns the entity a handle refers to
+     * @param handle the handle
+     * @return the entity, null if the handle is NONE or has gone stale
+     */
+    @SuppressWarnings("unchecked")
+    public T get(long handle){
+        int slot = (int) handle;
+        if (slot < 0 || slot >= used || generations[slot] != (int) (handle >>> SLOT_BITS)){
+            return null;
+        }
+        return (T) entities[slot];
+    }
+
+    /**
+     * Checks if a handle still refers to an entity in the table
+     * @param handle the handle
+     * @return true if the entity has not been removed
+     */
+    public boolean isLive(long handle){
+        return get(handle) != null;
+    }
+
+    /**
+     * Removes the entity a handle refers to, making every handle to it stale
+     * @param handle the handle
+     * @return true if the handle was live
+     */
+    public boolean remove(long handle){
+        if (!isLive(handle)){
+            return false;
+        }
+        int slot = (int) handle;
+        entities[slot] = null;
+        generations[slot]++;
+        freeSlots[freeCount++] = slot;
+        size--;
+        return true;
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the number of entities in the table
+     * @return the number of entities
+     */
+    public int size() {
+        return size;
+    }
+}
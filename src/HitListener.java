@@ -0,0 +1,13 @@
+/**
+ * Told about every projectile that hits its target, so the window can show the damage without the simulation
+ * knowing about text
+ */
+public interface HitListener {
+
+    /**
+     * Called when a projectile hits an enemy, before the enemy is checked for death
+     * @param target the enemy that was hit
+     * @param damage the damage dealt
+     */
+    void hit(Enemy target, int damage);
+}
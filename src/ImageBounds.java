@@ -0,0 +1,86 @@
+import bagel.util.Point;
+import bagel.util.Rectangle;
+
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The dimensions of an image, read straight from the PNG header so that bounding boxes can be worked out without
+ * loading a texture (and therefore without a window)
+ */
+public final class ImageBounds {
+    /* Constants */
+    private static final int PNG_SIGNATURE_LENGTH = 8;
+    private static final int CHUNK_HEADER_LENGTH = 8;
+    private static final Map<String, ImageBounds> CACHE = new ConcurrentHashMap<>();
+
+    /* Attributes */
+    private final double width;
+    private final double height;
+
+    /**
+     * Creates the bounds of an image
+     * @param width the width of the image
+     * @param height the height of the image
+     */
+    private ImageBounds(double width, double height){
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Returns the bounds of the image at the given path, reading the file the first time it is asked for
+     * @param imageSource the path to the png image
+     * @return the bounds of the image
+     */
+    public static ImageBounds of(String imageSource){
+        return CACHE.computeIfAbsent(imageSource, ImageBounds::read);
+    }
+
+    /**
+     * Reads the width and height out of the IHDR chunk, which is always the first chunk of a png file
+     * @param imageSource the path to the png image
+     * @return the bounds of the image
+     */
+    private static ImageBounds read(String imageSource){
+        try (DataInputStream input = new DataInputStream(new FileInputStream(imageSource))){
+            input.skipBytes(PNG_SIGNATURE_LENGTH + CHUNK_HEADER_LENGTH);
+            int width = input.readInt();
+            int height = input.readInt();
+            return new ImageBounds(width, height);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read image header of " + imageSource, e);
+        }
+    }
+
+    /**
+     * Returns a bounding box of the image centred at the given point, matching Image.getBoundingBoxAt
+     * @param point the centre of the bounding box
+     * @return the bounding box
+     */
+    public Rectangle boundingBoxAt(Point point){
+        return new Rectangle(point.x - width / 2, point.y - height / 2, width, height);
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the width of the image
+     * @return the width of the image
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the image
+     * @return the height of the image
+     */
+    public double getHeight() {
+        return height;
+    }
+}
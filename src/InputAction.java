@@ -0,0 +1,59 @@
+/**
+ * The player actions an InputRecorder records, by the code they are stored under in a recording
+ */
+public enum InputAction {
+    PLACE_TANK(1, true),
+    PLACE_SUPER_TANK(2, true),
+    PLACE_AIR_SUPPORT(3, true),
+    START_WAVE(4, false),
+    INCREASE_TIMESCALE(5, false),
+    DECREASE_TIMESCALE(6, false),
+    RESTART(7, false),
+    END(0, false);
+
+    /* Attributes */
+    private final int code;
+    private final boolean hasPoint;
+
+    /**
+     * Creates an action
+     * @param code the code of the action in recordings
+     * @param hasPoint whether the action is recorded with the point it happened at
+     */
+    InputAction(int code, boolean hasPoint){
+        this.code = code;
+        this.hasPoint = hasPoint;
+    }
+
+    /**
+     * Returns the action stored under a code
+     * @param code the code
+     * @return the action, null if no action has the code
+     */
+    public static InputAction fromCode(int code){
+        for (InputAction action : values()){
+            if (action.code == code){
+                return action;
+            }
+        }
+        return null;
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the code of the action in recordings
+     * @return the code
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Returns a boolean value indicating whether the action is recorded with a point
+     * @return true if the action has a point
+     */
+    public boolean hasPoint() {
+        return hasPoint;
+    }
+}
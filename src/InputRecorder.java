@@ -0,0 +1,93 @@
+import bagel.util.Point;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the player actions of a game to a compact binary recording. The recording starts with the seed and the files
+ * of the game, followed by one entry per action: its code, the number of ticks since the previous action as a
+ * variable length number, and the point for placements. An END entry with the final tick and state hash closes it.
+ * Every entry is flushed as it is written, so a game that is killed still leaves a recording that can be replayed.
+ */
+public class InputRecorder implements Closeable {
+    /* Constants */
+    public static final int MAGIC = 0x53445243; // "SDRC"
+    public static final int VERSION = 2;
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MORE = 0x80;
+
+    /* Attributes */
+    private final DataOutputStream out;
+    private long lastTick;
+
+    /**
+     * Starts a recording by writing its header
+     * @param stream where to write the recording
+     * @param seed the seed of the game
+     * @param catalogue the levels of the game
+     * @throws IOException when the header cannot be written
+     */
+    public InputRecorder(OutputStream stream, long seed, LevelCatalogue catalogue) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(seed);
+        catalogue.write(out);
+        out.flush();
+    }
+
+    /**
+     * Records an action
+     * @param action the action
+     * @param tick the number of ticks run before the action
+     * @param point the point of a placement, null for other actions
+     * @throws IOException when the action cannot be written
+     */
+    public void record(InputAction action, long tick, Point point) throws IOException {
+        out.writeByte(action.getCode());
+        writeVarLong(tick - lastTick);
+        lastTick = tick;
+        if (action.hasPoint()){
+            out.writeDouble(point.x);
+            out.writeDouble(point.y);
+        }
+        out.flush();
+    }
+
+    /**
+     * Closes the recording with the tick it ended on and the state of the game at that tick
+     * @param tick the number of ticks run
+     * @param stateHash the hash of the state of the game
+     * @throws IOException when the end cannot be written
+     */
+    public void finish(long tick, long stateHash) throws IOException {
+        record(InputAction.END, tick, null);
+        out.writeLong(stateHash);
+        close();
+    }
+
+    /**
+     * Writes a non-negative number in as few bytes as it needs, seven bits to a byte
+     * @param value the number
+     * @throws IOException when the number cannot be written
+     */
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~(VARINT_MORE - 1L)) != 0){
+            out.writeByte((int) (value & (VARINT_MORE - 1)) | VARINT_MORE);
+            value >>>= VARINT_BITS;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Flushes and closes the recording
+     * @throws IOException when the recording cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,116 @@
+import java.util.Arrays;
+
+/**
+ * A histogram of latencies in nanoseconds with buckets that grow exponentially, four to every power of two, so that
+ * recording is an array increment and percentiles are accurate to within a quarter of the value whatever its size
+ */
+public class LatencyHistogram {
+    /* Constants */
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = Long.SIZE * SUB_BUCKETS;
+
+    /* Attributes */
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * Records a latency
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos){
+        long value = Math.max(nanos, 0);
+        counts[bucketOf(value)]++;
+        count++;
+        total += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Returns the latency at or below which the given share of the recorded latencies fall
+     * @param quantile the share, from 0 to 1
+     * @return the upper bound of the bucket the quantile falls in, capped at the largest latency recorded, 0 if none
+     *         have been recorded
+     */
+    public long percentile(double quantile){
+        if (count == 0){
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++){
+            seen += counts[bucket];
+            if (seen >= rank){
+                return Math.min(upperBound(bucket), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Forgets every recorded latency
+     */
+    public void reset(){
+        Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+
+    /**
+     * Returns the bucket a latency falls in. Values below SUB_BUCKETS get a bucket each.
+     * @param value the latency
+     * @return the index of the bucket
+     */
+    private static int bucketOf(long value){
+        if (value < SUB_BUCKETS){
+            return (int) value;
+        }
+        int power = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (power - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (power - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the largest latency that falls in a bucket
+     * @param bucket the index of the bucket
+     * @return the upper bound of the bucket
+     */
+    private static long upperBound(int bucket){
+        if (bucket < SUB_BUCKETS){
+            return bucket;
+        }
+        int power = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        long width = 1L << (power - SUB_BUCKET_BITS);
+        return (1L << power) + (sub + 1) * width - 1;
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the number of latencies recorded
+     * @return the number of latencies
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the sum of the latencies recorded
+     * @return the total in nanoseconds
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the largest latency recorded
+     * @return the largest latency in nanoseconds
+     */
+    public long getMax() {
+        return max;
+    }
+}
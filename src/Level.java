@@ -1,9 +1,19 @@
-import bagel.map.TiledMap;
 import bagel.util.Point;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
 /**
  * The levels of the game
@@ -11,40 +21,172 @@ import java.util.List;
 public class Level{
     /* Constants */
     private static final double SPEED_OFFSET = 1; // Added to facilitate enemy spawning timings
-    private static final String FIRST_LEVEL = "res/levels/1.tmx";
-    private static final String SECOND_LEVEL = "res/levels/2.tmx";
-    private static final String WAVES = "res/levels/waves.txt";
+    private static final Point POOL_ORIGIN = new Point(0, 0);
+    private static final ExecutorService PREFETCH = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "level-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /* Attributes */
     private final List<Enemy> levelEnemy = new ArrayList<>();
     private final List<Defence> levelDefence = new ArrayList<>();
     private final List<Projectile> levelProjectiles = new ArrayList<>();
+    private final List<Enemy> completedEnemies = new ArrayList<>();
+    private final List<Enemy> spawnedChildren = new ArrayList<>();
+    private final List<Pool<Enemy>> enemyPools = new ArrayList<>();
+    private final Map<String, Pool<Projectile>> projectilePools = new HashMap<>();
+    private final Map<String, Pool<Explosive>> explosivePools = new HashMap<>();
+    private final List<Pool<? extends Sprite>> pools = new ArrayList<>();
+    private final List<Enemy> retargeted = new ArrayList<>();
+    private final HandleTable<Enemy> enemyHandles = new HandleTable<>();
+    private final EnemyStore enemyStore;
+    private final LevelCatalogue catalogue;
+    private ParallelPhases parallelPhases;
+    private HitListener hitListener;
+    private Enemy[] candidates = new Enemy[0];
     private List<Point> polyline;
+    private PathIndex pathIndex;
+    private TargetIndex targetIndex;
+    private SpatialGrid enemyGrid;
+    private PlacementGrid placementGrid;
+    private boolean enemyGridStale;
     private Wave levelWave;
-    private TiledMap map;
+    private LevelData data;
+    private LevelMap map;
     private int spawnFrameCounter;
     private int spawnedEnemies;
     private int phaseFrameCounter;
-    private boolean loadedNextLevel;
+    private int levelIndex;
+    private CompletableFuture<PreparedLevel> preparedNextLevel;
 
     /**
-     * Loads the map and the wave information into the game
+     * Loads the first level of the levels in the manifest
      * @throws IOException when file not found
      */
     public Level() throws IOException {
-        map = new TiledMap(FIRST_LEVEL);
-        polyline = map.getAllPolylines().get(0);
-        levelWave = new Wave(WAVES);
-        loadedNextLevel = false;
+        this(false);
+    }
+
+    /**
+     * Loads the first level of the levels in the manifest
+     * @param enemyArrays whether to keep the state of the enemies in an EnemyStore of primitive arrays rather than
+     *                    in each enemy, which is faster for waves with many thousands of enemies
+     * @throws IOException when file not found
+     */
+    public Level(boolean enemyArrays) throws IOException {
+        this(LevelCatalogue.load(LevelCatalogue.MANIFEST), 0, enemyArrays);
+    }
+
+    /**
+     * Loads a level of a catalogue into the game. The files come from the level cache, so only the first game of a
+     * level reads them.
+     * @param catalogue the levels of the game
+     * @param levelIndex the index of the level to start on, from 0
+     * @param enemyArrays whether to keep the state of the enemies in an EnemyStore
+     * @throws IOException when file not found
+     */
+    public Level(LevelCatalogue catalogue, int levelIndex, boolean enemyArrays) throws IOException {
+        this.catalogue = catalogue;
+        this.levelIndex = levelIndex;
+        enemyStore = enemyArrays ? new EnemyStore() : null;
+        use(new PreparedLevel(catalogue.get(levelIndex)));
+        for (EnemyArchetype type : Archetypes.standard().getEnemies()){
+            addEnemyPool(type, () -> new Enemy(type, pathIndex));
+        }
         resetLevel();
+        prefetchIfFinalWave();
+    }
+
+    /**
+     * Switches the level over to a prepared map, path and wave, and builds the lookups that depend on them
+     * @param prepared the prepared level
+     */
+    private void use(PreparedLevel prepared){
+        data = prepared.data;
+        map = data.getMap();
+        polyline = data.getPolyline();
+        pathIndex = data.getPathIndex();
+        if (enemyStore != null){
+            enemyStore.setPath(pathIndex);
+        }
+        targetIndex = new TargetIndex();
+        enemyGrid = new SpatialGrid(map.getWidth() * map.getTileWidth(), map.getHeight() * map.getTileHeight());
+        enemyGridStale = true;
+        placementGrid = new PlacementGrid(map);
+        levelWave = prepared.wave;
+    }
+
+    /**
+     * Starts preparing the next level on a background thread once the wave in progress is the last one of this
+     * level, so the switch at the end of the level does not have to read any files
+     */
+    private void prefetchIfFinalWave(){
+        if (preparedNextLevel == null && hasNextLevel() && levelWave.isFinalWave()){
+            preparedNextLevel = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return new PreparedLevel(catalogue.get(levelIndex + 1));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, PREFETCH);
+        }
+    }
+
+    /**
+     * Returns the next level prepared in the background, waiting for it if it is not ready yet, or prepares it now
+     * if it was never started
+     * @return the prepared next level
+     * @throws IOException when the files of the next level cannot be read
+     */
+    private PreparedLevel takeNextLevel() throws IOException {
+        CompletableFuture<PreparedLevel> prepared = preparedNextLevel;
+        preparedNextLevel = null;
+        if (prepared == null){
+            return new PreparedLevel(catalogue.get(levelIndex + 1));
+        }
+        try {
+            return prepared.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException){
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the wave file of a next level prepared in the background that will not be used, once it is ready
+     */
+    private void discardNextLevel(){
+        if (preparedNextLevel != null){
+            preparedNextLevel.thenAccept(PreparedLevel::close);
+            preparedNextLevel = null;
+        }
+    }
+
+    /**
+     * Creates the pool for a type of enemy, at the index of its archetype id
+     * @param type the type of enemy
+     * @param factory creates a new enemy of the type
+     */
+    private void addEnemyPool(EnemyArchetype type, Supplier<Enemy> factory){
+        Pool<Enemy> pool = new Pool<>(type.getName(), factory);
+        enemyPools.add(pool);
+        pools.add(pool);
     }
 
     /**
      * Keeps count of the elapsed frames since last enemy spawn and wave phase
      */
     public void increaseFrame(){
-        spawnFrameCounter += ShadowDefend.getTimescale();
-        phaseFrameCounter += ShadowDefend.getTimescale();
+        // The spawn counter starts at Integer.MAX_VALUE so the first enemy spawns straight away, so must not wrap around
+        if (spawnFrameCounter < Integer.MAX_VALUE){
+            spawnFrameCounter++;
+        }
+        if (phaseFrameCounter < Integer.MAX_VALUE){
+            phaseFrameCounter++;
+        }
         for (Defence object : levelDefence){
             object.increaseAttackCounter();
         }
@@ -54,9 +196,24 @@ public class Level{
      * Moves all enemies in the level
      */
     public void moveEnemies(){
-        for (Enemy enemy : levelEnemy) {
-            enemy.move();
+        if (parallelPhases != null){
+            // Every enemy only moves itself along the shared path tables
+            if (enemyStore != null){
+                parallelPhases.forEach(enemyStore.getSize(), enemyStore::move);
+            }
+            else{
+                parallelPhases.forEach(levelEnemy.size(), i -> levelEnemy.get(i).move());
+            }
+        }
+        else if (enemyStore != null){
+            enemyStore.moveAll();
+        }
+        else{
+            for (Enemy enemy : levelEnemy) {
+                enemy.move();
+            }
         }
+        enemyGridStale = true;
     }
 
     /**
@@ -66,8 +223,17 @@ public class Level{
         for (Defence structure : levelDefence){
             structure.move();
         }
-        for (Projectile projectile : levelProjectiles){
-            projectile.move(this);
+        if (parallelPhases != null){
+            // Projectiles home in parallel, then deal their damage in order as they would one at a time
+            parallelPhases.forEach(levelProjectiles.size(), i -> levelProjectiles.get(i).home(this));
+            for (Projectile projectile : levelProjectiles){
+                projectile.resolve(this);
+            }
+        }
+        else{
+            for (Projectile projectile : levelProjectiles){
+                projectile.move(this);
+            }
         }
     }
 
@@ -75,26 +241,13 @@ public class Level{
      * Spawns the wave of enemies with the given delay specified in the wave file
      */
     public void spawnWave(){
-        String currEnemyType = levelWave.getEnemyType();
         // Spawns an enemy if current wave action is spawn and it is time to spawn next enemy
-        if (levelWave.getAction().equals("spawn") && spawnFrameCounter >= (levelWave.getActionDelay() * SPEED_OFFSET)
+        if (levelWave.getAction() == WaveAction.SPAWN && spawnFrameCounter >= (levelWave.getActionDelay() * SPEED_OFFSET)
                 && spawnedEnemies < levelWave.getNumberToSpawn()){
-            switch (currEnemyType){
-                case "slicer":
-                    levelEnemy.add(new Slicer(polyline));
-                    break;
-                case "megaslicer":
-                    levelEnemy.add(new MegaSlicer(polyline));
-                    break;
-                case "superslicer":
-                    levelEnemy.add(new SuperSlicer(polyline));
-                    break;
-                case "apexslicer":
-                    levelEnemy.add(new ApexSlicer(polyline));
-                    break;
-            }
+            levelEnemy.add(obtainEnemy(levelWave.getEnemyType(), 0, polyline.get(0)));
             spawnedEnemies++;
             spawnFrameCounter = 0;
+            enemyGridStale = true;
 
         }
 
@@ -105,7 +258,7 @@ public class Level{
         }
 
         // Resets the wave if the current wave action is delay and the delay is over
-        if (levelWave.getAction().equals("delay") && phaseFrameCounter >= levelWave.getActionDelay()){
+        if (levelWave.getAction() == WaveAction.DELAY && phaseFrameCounter >= levelWave.getActionDelay()){
             levelWave.processWave();
             resetLevel();
         }
@@ -114,22 +267,24 @@ public class Level{
 
     /**
      * Renders all active sprites in the level
+     * @param queue the render queue of the frame
      */
-    public void renderEnemies(){
+    public void renderEnemies(RenderQueue queue){
         for (Enemy enemy : levelEnemy){
-            enemy.render();
+            enemy.render(queue);
         }
     }
 
     /**
      * Renders all active defences and projectiles in the level
+     * @param queue the render queue of the frame
      */
-    public void renderDefences(){
+    public void renderDefences(RenderQueue queue){
         for (Defence item : levelDefence){
-            item.render();
+            item.render(queue);
         }
         for (Projectile projectile : levelProjectiles){
-            projectile.render();
+            projectile.render(queue);
         }
     }
 
@@ -139,44 +294,173 @@ public class Level{
      */
     public boolean checkWaveEnded(){
         return spawnedEnemies == levelWave.getNumberToSpawn() && levelEnemy.isEmpty()
-                && levelWave.getWaveInProgress().isEmpty();
+                && !levelWave.hasPendingActions();
     }
 
     /**
-     * Removes completed sprites, spawns child slicers if an enemy has died
+     * Removes completed sprites, spawns child slicers if an enemy has died. Removed enemies and projectiles go back
+     * to their pools.
+     * @param gameInstance the game to reward or penalise
      */
-    public void removeCompletedSprites(ShadowDefend gameInstance){
-        List<Enemy> toRemove = new ArrayList<>();
-        List<Enemy> toSpawn = new ArrayList<>();
-        for (Enemy enemy : levelEnemy){
+    public void removeCompletedSprites(Simulation gameInstance){
+        // One pass settles every enemy and slides the survivors down over the completed ones, keeping their order
+        int kept = 0;
+        for (int i = 0; i < levelEnemy.size(); i++){
+            Enemy enemy = levelEnemy.get(i);
             if (enemy.getCompletedMap()){
                 gameInstance.deductLives(enemy.getPenalty());
-                toRemove.add(enemy);
             }
             if (enemy.isKilled()){
                 gameInstance.addMoney(enemy.getReward());
-                toSpawn.addAll(enemy.spawnChild(this));
-                toRemove.add(enemy);
+                enemy.spawnChild(this, spawnedChildren);
+            }
+            if (enemy.getCompleted()){
+                completedEnemies.add(enemy);
+            }
+            else{
+                levelEnemy.set(kept++, enemy);
             }
         }
-        levelEnemy.removeAll(toRemove);
-        levelEnemy.addAll(toSpawn);
-        levelProjectiles.removeIf(Projectile::completed);
-        List<Defence> toBeRemoved = new ArrayList<>();
-        for(Defence tower : levelDefence){
+        if (!completedEnemies.isEmpty()){
+            levelEnemy.subList(kept, levelEnemy.size()).clear();
+            // Freed after every child has spawned, so no enemy is handed out again while its parent is still needed.
+            // Freeing makes every handle to the enemy stale, so nothing has to be told it is gone.
+            for (Enemy enemy : completedEnemies){
+                freeEnemy(enemy);
+            }
+            completedEnemies.clear();
+        }
+        levelEnemy.addAll(spawnedChildren);
+        spawnedChildren.clear();
+        enemyGridStale = true;
+        levelProjectiles.removeIf(projectile -> {
+            projectile.checkTarget(this);
+            if (projectile.completed()){
+                freeProjectile(projectile);
+                return true;
+            }
+            return false;
+        });
+        levelDefence.removeIf(tower -> {
             if (!tower.completedPath()){
-                toBeRemoved.add(tower);
+                tower.release();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Takes an enemy of the given type out of its pool and puts it at a point on the path
+     * @param type the type of enemy
+     * @param currPoint the point on the polyline the enemy starts at
+     * @param location the location to spawn it
+     * @return the enemy, which still has to be added to the level
+     */
+    public Enemy obtainEnemy(EnemyArchetype type, int currPoint, Point location){
+        Enemy enemy = enemyPools.get(type.getId()).obtain();
+        enemy.reset(pathIndex, currPoint, location);
+        enemy.setHandle(enemyHandles.add(enemy));
+        if (enemyStore != null){
+            enemy.attach(enemyStore);
+        }
+        return enemy;
+    }
+
+    /**
+     * Returns an enemy that has left the level to its pool
+     * @param enemy the enemy
+     */
+    private void freeEnemy(Enemy enemy){
+        enemyHandles.remove(enemy.getHandle());
+        enemy.setHandle(HandleTable.NONE);
+        enemy.detach();
+        enemyPools.get(enemy.getArchetype().getId()).free(enemy);
+    }
+
+    /**
+     * Returns a projectile that has left the level to its pool
+     * @param projectile the projectile
+     */
+    private void freeProjectile(Projectile projectile){
+        projectile.forgetTarget();
+        if (projectile instanceof Explosive){
+            explosivePools.get(projectile.getImageSource()).free((Explosive) projectile);
+        }
+        else{
+            projectilePools.get(projectile.getImageSource()).free(projectile);
+        }
+    }
+
+    /**
+     * Returns every enemy and projectile in the level to their pools
+     */
+    private void freeAll(){
+        for (Enemy enemy : levelEnemy){
+            freeEnemy(enemy);
+        }
+        for (Projectile projectile : levelProjectiles){
+            freeProjectile(projectile);
+        }
+        levelEnemy.clear();
+        levelProjectiles.clear();
+    }
+
+    /**
+     * Gives back the assets held by every sprite in the level and its pools, and closes the wave file, for when the
+     * level is discarded
+     * @throws IOException when the wave file cannot be closed
+     */
+    public void release() throws IOException {
+        discardNextLevel();
+        levelWave.close();
+        freeAll();
+        for (Defence tower : levelDefence){
+            tower.release();
+        }
+        for (Pool<? extends Sprite> pool : pools){
+            for (Sprite sprite : pool.getIdle()){
+                sprite.release();
             }
         }
-        levelDefence.removeAll(toBeRemoved);
+    }
+
+    /**
+     * Sets the pool the data-parallel phases of a tick run on
+     * @param parallelPhases the parallel phases, null to run every phase on the calling thread
+     */
+    public void setParallelPhases(ParallelPhases parallelPhases){
+        this.parallelPhases = parallelPhases;
+    }
+
+    /**
+     * Sets who is told about projectiles hitting their targets
+     * @param hitListener the listener, null for none
+     */
+    public void setHitListener(HitListener hitListener){
+        this.hitListener = hitListener;
+    }
+
+    /**
+     * Deals the damage of a projectile to its target and tells the hit listener
+     * @param target the enemy hit
+     * @param damage the damage dealt
+     */
+    public void hit(Enemy target, int damage){
+        target.deductHealth(damage);
+        if (hitListener != null){
+            hitListener.hit(target, damage);
+        }
     }
 
     /**
      * Loads the next wave into the level and resets the level
+     * @throws IOException when the next wave cannot be read from the wave file
      */
-    public void getNextWave(){
+    public void getNextWave() throws IOException {
         levelWave.parseWave();
         resetLevel();
+        prefetchIfFinalWave();
     }
 
     /**
@@ -193,10 +477,13 @@ public class Level{
      * @param defence the defence to be placed
      * @param instance the instance of the game to deduct money
      */
-    public void placeDefence(Defence defence, ShadowDefend instance){
+    public void placeDefence(Defence defence, Simulation instance){
         if (instance.getMoney() >= defence.getCost()){
             levelDefence.add(defence);
             instance.deductMoney(defence.getCost());
+            if (defence.blocksPlacement()){
+                placementGrid.add(defence);
+            }
         }
     }
 
@@ -204,21 +491,74 @@ public class Level{
      * Tells defences of the game to find a target and attack the target
      */
     public void defenceAttack(){
-        for (Defence tower : levelDefence){
-            tower.findTarget(this);
+        targetIndex.update(levelEnemy);
+        if (parallelPhases == null){
+            for (Defence tower : levelDefence){
+                tower.findTarget(this);
+                tower.attack(this);
+            }
+            return;
+        }
+
+        // Every defence searches at once against the targeted flags as they were at the start of the frame
+        int towers = levelDefence.size();
+        if (candidates.length < towers){
+            candidates = new Enemy[towers];
+        }
+        parallelPhases.forEach(towers, i -> candidates[i] = levelDefence.get(i).searchTarget(this));
+
+        // Then they take their targets in order. A candidate is only what a serial search would have found if no
+        // defence before it has targeted or dropped an enemy within its range, otherwise it searches again.
+        retargeted.clear();
+        for (int i = 0; i < towers; i++){
+            Defence tower = levelDefence.get(i);
+            Enemy candidate = candidates[i];
+            candidates[i] = null;
+            if (tower.needsTarget(this) && anyInRange(tower, retargeted)){
+                candidate = tower.searchTarget(this);
+            }
+            Enemy changed = tower.findTarget(this, candidate);
+            if (changed != null){
+                retargeted.add(changed);
+            }
             tower.attack(this);
         }
+        retargeted.clear();
+    }
+
+    /**
+     * Checks if any of the given enemies are within range of a defence
+     * @param tower the defence
+     * @param enemies the enemies
+     * @return true if at least one of the enemies is in range
+     */
+    private static boolean anyInRange(Defence tower, List<Enemy> enemies){
+        for (Enemy enemy : enemies){
+            if (tower.inRange(enemy)){
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
      * Adds a new projectile to the level
      * @param point the point to add the projectile
      * @param projectileSource its image source
-     * @param target its target
+     * @param target its target, null for none
      * @param damage its damage
      */
     public void addProjectile(Point point, String projectileSource, Enemy target, int damage){
-        levelProjectiles.add(new Projectile(point, projectileSource, target, damage));
+        Pool<Projectile> pool = projectilePools.get(projectileSource);
+        if (pool == null){
+            pool = new Pool<>(projectileSource, () -> new Projectile(POOL_ORIGIN, projectileSource,
+                    HandleTable.NONE, 0));
+            projectilePools.put(projectileSource, pool);
+            pools.add(pool);
+        }
+        Projectile projectile = pool.obtain();
+        projectile.reset(point, target == null ? HandleTable.NONE : target.getHandle(), damage);
+        levelProjectiles.add(projectile);
     }
 
     /**
@@ -226,23 +566,148 @@ public class Level{
      * @param point the point to add the explosive
      * @param projectileSource its image source
      * @param damage its damage
+     * @param radius the radius of its blast
+     */
+    public void addExplosive(Point point, String projectileSource, int damage, int radius){
+        Pool<Explosive> pool = explosivePools.get(projectileSource);
+        if (pool == null){
+            pool = new Pool<>(projectileSource, () -> new Explosive(POOL_ORIGIN, projectileSource, 0, 0));
+            explosivePools.put(projectileSource, pool);
+            pools.add(pool);
+        }
+        Explosive explosive = pool.obtain();
+        explosive.reset(point, damage, radius);
+        levelProjectiles.add(explosive);
+    }
+
+    /**
+     * Writes the state of the level: the spawn counters, where the wave is up to, and every enemy, defence and
+     * projectile in it. Target handles are written as indices into the enemies of the level, so no images are written and
+     * the targets point at the right enemies once read back.
+     * @param out where to write the state
+     * @throws IOException when the state cannot be written
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(spawnFrameCounter);
+        out.writeInt(spawnedEnemies);
+        out.writeInt(phaseFrameCounter);
+        levelWave.writeState(out);
+
+        Map<Long, Integer> enemyIndex = new HashMap<>(levelEnemy.size() * 2);
+        out.writeInt(levelEnemy.size());
+        for (Enemy enemy : levelEnemy){
+            enemyIndex.put(enemy.getHandle(), enemyIndex.size());
+            out.writeByte(enemy.getArchetype().getId());
+            enemy.writeState(out);
+        }
+        out.writeInt(levelDefence.size());
+        for (Defence defence : levelDefence){
+            out.writeByte(defence.getArchetype().getId());
+            if (defence instanceof AirSupport){
+                out.writeBoolean(((AirSupport) defence).isHorizontal());
+            }
+            defence.writeState(out, enemyIndex);
+        }
+        out.writeInt(levelProjectiles.size());
+        for (Projectile projectile : levelProjectiles){
+            out.writeBoolean(projectile instanceof Explosive);
+            out.writeUTF(projectile.getImageSource());
+            projectile.writeState(out, enemyIndex);
+        }
+    }
+
+    /**
+     * Replaces the state of the level with one written by writeState for the same map and wave file. The enemies
+     * and projectiles are taken from the pools of the level and the waves are played again up to the wave that was
+     * in progress.
+     * @param in where to read the state from
+     * @param version the version of the snapshot the state is in
+     * @param random the random numbers of the game, for the air supports read back
+     * @throws IOException when the state cannot be read or does not fit the level
      */
-    public void addExplosive(Point point, String projectileSource, int damage){
-        levelProjectiles.add(new Explosive(point, projectileSource, damage));
+    public void readState(DataInput in, int version, GameRandom random) throws IOException {
+        freeAll();
+        for (Defence tower : levelDefence){
+            tower.release();
+        }
+        levelDefence.clear();
+        placementGrid.clear();
+        levelWave.close();
+        levelWave = data.openWave();
+
+        spawnFrameCounter = in.readInt();
+        spawnedEnemies = in.readInt();
+        phaseFrameCounter = in.readInt();
+        levelWave.readState(in, version);
+
+        Enemy[] enemies = new Enemy[in.readInt()];
+        for (int i = 0; i < enemies.length; i++){
+            int type = in.readUnsignedByte();
+            if (type >= enemyPools.size()){
+                throw new IOException("Unknown enemy type " + type);
+            }
+            Enemy enemy = enemyPools.get(type).obtain();
+            enemy.reset(pathIndex, 0, polyline.get(0));
+            enemy.setHandle(enemyHandles.add(enemy));
+            enemy.readState(in, version);
+            if (enemyStore != null){
+                enemy.attach(enemyStore);
+            }
+            levelEnemy.add(enemy);
+            enemies[i] = enemy;
+        }
+        int defences = in.readInt();
+        for (int i = 0; i < defences; i++){
+            int type = in.readUnsignedByte();
+            if (type >= Archetypes.standard().getDefences().size()){
+                throw new IOException("Unknown defence type " + type);
+            }
+            DefenceArchetype archetype = Archetypes.standard().getDefence(type);
+            Defence defence;
+            if (archetype.isAirSupport()){
+                // Draws a drop time from the random numbers, which the caller puts back once the level is read
+                defence = new AirSupport(POOL_ORIGIN, archetype, in.readBoolean(), random);
+            }
+            else{
+                defence = new Defence(POOL_ORIGIN, archetype);
+            }
+            defence.readState(in, version, enemies);
+            levelDefence.add(defence);
+            if (defence.blocksPlacement()){
+                placementGrid.add(defence);
+            }
+        }
+        int projectiles = in.readInt();
+        for (int i = 0; i < projectiles; i++){
+            boolean explosive = in.readBoolean();
+            String imageSource = in.readUTF();
+            if (explosive){
+                addExplosive(POOL_ORIGIN, imageSource, 0, 0);
+            }
+            else{
+                addProjectile(POOL_ORIGIN, imageSource, null, 0);
+            }
+            levelProjectiles.get(levelProjectiles.size() - 1).readState(in, version, enemies);
+        }
+        enemyGridStale = true;
+        prefetchIfFinalWave();
     }
 
     /**
-     * Loads the next level of the game
+     * Loads the next level of the game. Its files have normally been read in the background during the last wave of
+     * this level, leaving only the switch over to do here.
      * @throws IOException when the file for the map of the next level is not find
      */
     public void loadNextLevel() throws IOException {
-        map = new TiledMap(SECOND_LEVEL);
-        polyline = map.getAllPolylines().get(0);
-        levelWave = new Wave(WAVES);
+        PreparedLevel prepared = takeNextLevel();
+        levelWave.close();
+        use(prepared);
+        freeAll();
+        for (Defence tower : levelDefence){
+            tower.release();
+        }
         levelDefence.clear();
-        levelEnemy.clear();
-        levelProjectiles.clear();
-        loadedNextLevel = true;
+        levelIndex++;
         resetLevel();
     }
 
@@ -250,16 +715,28 @@ public class Level{
      * Clears all projectiles in the game when the wave has ended
      */
     public void resetLevelProjectiles(){
+        for (Projectile projectile : levelProjectiles){
+            freeProjectile(projectile);
+        }
         levelProjectiles.clear();
     }
 
     /* Getters and setters */
 
+    /**
+     * Returns the enemy a handle refers to
+     * @param handle the handle of the enemy
+     * @return the enemy, null if it has left the level or the handle is HandleTable.NONE
+     */
+    public Enemy getEnemy(long handle) {
+        return enemyHandles.get(handle);
+    }
+
     /**
      * Returns the map of the current level
      * @return the map
      */
-    public TiledMap getMap() {
+    public LevelMap getMap() {
         return map;
     }
 
@@ -280,11 +757,96 @@ public class Level{
     }
 
     /**
-     * Returns a boolean value indicating whether the next level of the game has been loaded
-     * @return true if the next level has been loaded
+     * Returns a grid of the enemies of the level by location for area of effect queries. The grid is rebuilt at most
+     * once per frame, the first time it is asked for after enemies have moved.
+     * @return the enemy grid
+     */
+    public SpatialGrid getEnemyGrid() {
+        if (enemyGridStale){
+            enemyGrid.rebuild(levelEnemy);
+            enemyGridStale = false;
+        }
+        return enemyGrid;
+    }
+
+    /**
+     * Returns where towers can be placed on the level
+     * @return the placement grid
+     */
+    public PlacementGrid getPlacementGrid() {
+        return placementGrid;
+    }
+
+    /**
+     * Returns the arc length measurements of the enemy path of the level
+     * @return the path index
+     */
+    public PathIndex getPathIndex() {
+        return pathIndex;
+    }
+
+    /**
+     * Returns the store holding the state of the enemies of the level
+     * @return the enemy store, or null if each enemy keeps its own state
+     */
+    public EnemyStore getEnemyStore() {
+        return enemyStore;
+    }
+
+    /**
+     * Returns the enemies of the level sorted by how far along the path they are, as of the last defence attack
+     * @return the target index
+     */
+    public TargetIndex getTargetIndex() {
+        return targetIndex;
+    }
+
+    /**
+     * Returns the entity pools of the level, for occupancy and high-water mark stats
+     * @return the pools
+     */
+    public List<Pool<? extends Sprite>> getPools() {
+        return Collections.unmodifiableList(pools);
+    }
+
+    /**
+     * Returns the index of the level being played in the catalogue
+     * @return the index of the level, from 0
+     */
+    public int getLevelIndex() {
+        return levelIndex;
+    }
+
+    /**
+     * Returns the levels of the game
+     * @return the catalogue
+     */
+    public LevelCatalogue getCatalogue() {
+        return catalogue;
+    }
+
+    /**
+     * Returns the map of the next level being read in the background, so the window can prepare to draw it too
+     * @return the map once it has been read, null if the next level is not being prepared
+     */
+    public CompletableFuture<LevelMap> getPreparedNextMap() {
+        return preparedNextLevel == null ? null : preparedNextLevel.thenApply(prepared -> prepared.data.getMap());
+    }
+
+    /**
+     * Returns a boolean value indicating whether there is a level to load once this one is finished
+     * @return true if there is a level after this one in the catalogue
      */
-    public boolean hasLoadedNextLevel() {
-        return loadedNextLevel;
+    public boolean hasNextLevel() {
+        return levelIndex + 1 < catalogue.size();
+    }
+
+    /**
+     * Returns a list of the projectiles in flight in the level
+     * @return the list of projectiles
+     */
+    public List<Projectile> getLevelProjectiles() {
+        return levelProjectiles;
     }
 
     /**
@@ -294,4 +856,34 @@ public class Level{
     public List<Defence> getLevelDefence() {
         return levelDefence;
     }
+
+    /**
+     * A level ready to be switched to: its parsed files and a wave opened at its first wave. Only builds its own
+     * objects, so it can be prepared on a background thread.
+     */
+    private static class PreparedLevel {
+        private final LevelData data;
+        private final Wave wave;
+
+        /**
+         * Opens the first wave of a level
+         * @param data the parsed files of the level
+         * @throws IOException when the first wave cannot be read
+         */
+        private PreparedLevel(LevelData data) throws IOException {
+            this.data = data;
+            wave = data.openWave();
+        }
+
+        /**
+         * Closes the wave of a prepared level that will not be used
+         */
+        private void close(){
+            try {
+                wave.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
 }
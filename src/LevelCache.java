@@ -0,0 +1,109 @@
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of parsed levels, keyed by their map and wave files, that drops the least recently used level once
+ * it is full. Restarting a game or playing the same level headless over and over only reads its files the first
+ * time, or again if they have changed on disk since. Safe to use from several threads; two threads missing on the
+ * same level at once may both read it, and one copy wins.
+ */
+public final class LevelCache {
+    /* Constants */
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final LevelCache SHARED = new LevelCache(DEFAULT_CAPACITY);
+
+    /* Attributes */
+    private final int capacity;
+    private final Map<String, LevelData> levels;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates an empty cache
+     * @param capacity the most levels to keep, at least one
+     */
+    public LevelCache(int capacity){
+        this.capacity = Math.max(capacity, 1);
+        levels = new LinkedHashMap<String, LevelData>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LevelData> eldest){
+                return size() > LevelCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache shared by every game in the process
+     * @return the shared cache
+     */
+    public static LevelCache shared(){
+        return SHARED;
+    }
+
+    /**
+     * Returns the parsed level for a map and wave file, reading it if it is not cached or its files have changed.
+     * Files are read outside the lock, so a slow read does not hold up other levels.
+     * @param mapFile the map of the level
+     * @param waveFile the wave file of the level
+     * @return the level
+     * @throws IOException when the files cannot be read or are not valid
+     */
+    public LevelData get(String mapFile, String waveFile) throws IOException {
+        String key = mapFile + '\n' + waveFile;
+        synchronized (this){
+            LevelData level = levels.get(key);
+            if (level != null && !level.isStale()){
+                hits++;
+                return level;
+            }
+            misses++;
+        }
+        LevelData level = new LevelData(mapFile, waveFile);
+        synchronized (this){
+            levels.put(key, level);
+        }
+        return level;
+    }
+
+    /**
+     * Drops every cached level
+     */
+    public synchronized void clear(){
+        levels.clear();
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the number of levels cached
+     * @return the number of levels
+     */
+    public synchronized int size() {
+        return levels.size();
+    }
+
+    /**
+     * Returns the most levels the cache keeps
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to read the files
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,199 @@
+import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The levels of a game in the order they are played, each a map file and a wave file. Read from a manifest with one
+ * level per line, "map,waves", where blank lines and lines starting with # are skipped. The parsed files of each
+ * level come from the shared LevelCache.
+ */
+public final class LevelCatalogue {
+    /* Constants */
+    public static final String MANIFEST = "res/levels/levels.txt";
+    private static final String COMMENT = "#";
+    private static final int MAP = 0;
+    private static final int WAVES = 1;
+
+    /* Attributes */
+    private final List<String> mapFiles;
+    private final List<String> waveFiles;
+
+    /**
+     * Creates a catalogue of the given levels
+     * @param mapFiles the map of each level, in order
+     * @param waveFiles the wave file of each level, in order
+     * @throws IllegalArgumentException when there are no levels or the lists are not the same length
+     */
+    public LevelCatalogue(List<String> mapFiles, List<String> waveFiles){
+        if (mapFiles.isEmpty() || mapFiles.size() != waveFiles.size()){
+            throw new IllegalArgumentException("A catalogue needs at least one level and a wave file per map");
+        }
+        this.mapFiles = Collections.unmodifiableList(new ArrayList<>(mapFiles));
+        this.waveFiles = Collections.unmodifiableList(new ArrayList<>(waveFiles));
+    }
+
+    /**
+     * Creates a catalogue of levels that all play the same wave file
+     * @param waveFile the wave file
+     * @param mapFiles the map of each level, in order
+     * @return the catalogue
+     */
+    public static LevelCatalogue of(String waveFile, String... mapFiles){
+        return new LevelCatalogue(Arrays.asList(mapFiles), Collections.nCopies(mapFiles.length, waveFile));
+    }
+
+    /**
+     * Reads a manifest
+     * @param manifest path to the manifest
+     * @return the catalogue
+     * @throws IOException when the manifest cannot be read, a line is not valid or it has no levels
+     */
+    public static LevelCatalogue load(String manifest) throws IOException {
+        List<String> maps = new ArrayList<>();
+        List<String> waves = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(manifest))){
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null){
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith(COMMENT)){
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != 2 || fields[MAP].trim().isEmpty() || fields[WAVES].trim().isEmpty()){
+                    throw new IOException(manifest + ":" + lineNumber + ": expected map,waves but got '" + line + "'");
+                }
+                maps.add(fields[MAP].trim());
+                waves.add(fields[WAVES].trim());
+            }
+        }
+        if (maps.isEmpty()){
+            throw new IOException(manifest + " has no levels");
+        }
+        return new LevelCatalogue(maps, waves);
+    }
+
+    /**
+     * Writes the files of every level, for recordings and snapshots to name the levels they were made with
+     * @param out where to write the catalogue
+     * @throws IOException when the catalogue cannot be written
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(size());
+        for (int i = 0; i < size(); i++){
+            out.writeUTF(mapFiles.get(i));
+            out.writeUTF(waveFiles.get(i));
+        }
+    }
+
+    /**
+     * Reads a catalogue written by write
+     * @param in where to read the catalogue from
+     * @return the catalogue
+     * @throws IOException when the catalogue cannot be read or has no levels
+     */
+    public static LevelCatalogue read(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size <= 0){
+            throw new IOException("Bad number of levels " + size);
+        }
+        List<String> maps = new ArrayList<>();
+        List<String> waves = new ArrayList<>();
+        for (int i = 0; i < size; i++){
+            maps.add(in.readUTF());
+            waves.add(in.readUTF());
+        }
+        return new LevelCatalogue(maps, waves);
+    }
+
+    /**
+     * Reads the files of a game the way the first versions of recordings and snapshots wrote them: the first map, the
+     * second map if there was one, and the wave file both played
+     * @param in where to read the files from
+     * @return the catalogue
+     * @throws IOException when the files cannot be read
+     */
+    public static LevelCatalogue readFirstVersion(DataInput in) throws IOException {
+        String firstMap = in.readUTF();
+        String secondMap = in.readBoolean() ? in.readUTF() : null;
+        String waveFile = in.readUTF();
+        return secondMap == null ? of(waveFile, firstMap) : of(waveFile, firstMap, secondMap);
+    }
+
+    /**
+     * Returns the parsed files of a level, from the shared cache
+     * @param level the index of the level, from 0
+     * @return the level
+     * @throws IOException when the files of the level cannot be read
+     */
+    public LevelData get(int level) throws IOException {
+        return LevelCache.shared().get(mapFiles.get(level), waveFiles.get(level));
+    }
+
+    /**
+     * Checks if another object is a catalogue of the same files in the same order
+     * @param other the other object
+     * @return true if the catalogues are the same
+     */
+    @Override
+    public boolean equals(Object other){
+        if (!(other instanceof LevelCatalogue)){
+            return false;
+        }
+        LevelCatalogue catalogue = (LevelCatalogue) other;
+        return mapFiles.equals(catalogue.mapFiles) && waveFiles.equals(catalogue.waveFiles);
+    }
+
+    /**
+     * Hashes the files of the catalogue
+     * @return the hash
+     */
+    @Override
+    public int hashCode(){
+        return 31 * mapFiles.hashCode() + waveFiles.hashCode();
+    }
+
+    /**
+     * Describes the catalogue as its map files
+     * @return the description
+     */
+    @Override
+    public String toString(){
+        return mapFiles.toString();
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the number of levels
+     * @return the number of levels
+     */
+    public int size() {
+        return mapFiles.size();
+    }
+
+    /**
+     * Returns the map of a level
+     * @param level the index of the level, from 0
+     * @return the map file
+     */
+    public String getMapFile(int level) {
+        return mapFiles.get(level);
+    }
+
+    /**
+     * Returns the wave file of a level
+     * @param level the index of the level, from 0
+     * @return the wave file
+     */
+    public String getWaveFile(int level) {
+        return waveFiles.get(level);
+    }
+}
@@ -0,0 +1,112 @@
+import bagel.util.Point;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Everything read from the files of a level: the map with its tiles and blocked tiles, the enemy path compiled into a
+ * PathIndex, and the wave file compiled into a WaveTimeline. None of it changes once read, so one copy is shared by
+ * every game of the level, on any thread, through the LevelCache. Wave files too large to keep compiled are streamed
+ * by every game instead, so a cached level holds the same memory however long its wave file is.
+ */
+public final class LevelData {
+    /* Constants */
+    public static final long MAX_COMPILED_WAVE_BYTES = 1024 * 1024;
+
+    /* Attributes */
+    private final String mapFile;
+    private final String waveFile;
+    private final long mapModified;
+    private final long waveModified;
+    private final LevelMap map;
+    private final List<Point> polyline;
+    private final PathIndex pathIndex;
+    private final WaveTimeline waves;
+
+    /**
+     * Reads and compiles the files of a level
+     * @param mapFile the TMX map of the level
+     * @param waveFile the wave file of the level
+     * @throws IOException when either file cannot be read or is not valid
+     */
+    public LevelData(String mapFile, String waveFile) throws IOException {
+        this.mapFile = mapFile;
+        this.waveFile = waveFile;
+        // Taken before reading, so a file changed while it is read looks out of date rather than up to date
+        mapModified = new File(mapFile).lastModified();
+        waveModified = new File(waveFile).lastModified();
+        map = new LevelMap(mapFile);
+        polyline = map.getAllPolylines().get(0);
+        pathIndex = new PathIndex(polyline);
+        waves = new File(waveFile).length() <= MAX_COMPILED_WAVE_BYTES ? WaveTimeline.compile(waveFile) : null;
+    }
+
+    /**
+     * Starts a wave at the first wave of the level, from the compiled waves if the wave file was small enough to
+     * keep and otherwise by streaming the file
+     * @return the wave
+     * @throws IOException when a streamed wave file cannot be opened or its first line is not valid
+     */
+    public Wave openWave() throws IOException {
+        return waves != null ? new Wave(waves.open()) : new Wave(new WaveStream(waveFile));
+    }
+
+    /**
+     * Checks if the files of the level have changed on disk since they were read
+     * @return true if either file has a different modification time
+     */
+    public boolean isStale(){
+        return new File(mapFile).lastModified() != mapModified || new File(waveFile).lastModified() != waveModified;
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the path of the map file
+     * @return the map file
+     */
+    public String getMapFile() {
+        return mapFile;
+    }
+
+    /**
+     * Returns the path of the wave file
+     * @return the wave file
+     */
+    public String getWaveFile() {
+        return waveFile;
+    }
+
+    /**
+     * Returns the map of the level
+     * @return the map
+     */
+    public LevelMap getMap() {
+        return map;
+    }
+
+    /**
+     * Returns the path the enemies follow
+     * @return the points of the path
+     */
+    public List<Point> getPolyline() {
+        return polyline;
+    }
+
+    /**
+     * Returns the path the enemies follow, compiled for fast lookups
+     * @return the path index
+     */
+    public PathIndex getPathIndex() {
+        return pathIndex;
+    }
+
+    /**
+     * Returns the compiled waves of the level
+     * @return the timeline, null if the wave file is larger than MAX_COMPILED_WAVE_BYTES and is streamed instead
+     */
+    public WaveTimeline getWaves() {
+        return waves;
+    }
+}
@@ -0,0 +1,338 @@
+import bagel.util.Point;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.imageio.ImageIO;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The simulation side of a level map. Reads the parts of a TMX file the game logic needs (the enemy paths, the map
+ * dimensions and which tiles are blocked) without loading any tile textures, so a level can be played without a
+ * window. The tile layers are kept too, so the map can be drawn into a single image once per level.
+ */
+public class LevelMap {
+    /* Constants */
+    private static final String BLOCKED = "blocked";
+    private static final long GID_MASK = 0x1FFFFFFFL; // The top bits of a tile id are its flip flags
+
+    /* Attributes */
+    private final String mapFile;
+    private final List<List<Point>> polylines;
+    private final int width;
+    private final int height;
+    private final int tileWidth;
+    private final int tileHeight;
+    private final List<Tileset> tilesets;
+    private final List<int[]> layers;
+    private final BitSet blocked;
+
+    /**
+     * Parses a TMX map file
+     * @param mapFile path to the TMX file
+     * @throws IOException when the file cannot be read or is not a valid map
+     */
+    public LevelMap(String mapFile) throws IOException {
+        this.mapFile = mapFile;
+        Element root = parse(mapFile).getDocumentElement();
+        width = Integer.parseInt(root.getAttribute("width"));
+        height = Integer.parseInt(root.getAttribute("height"));
+        tileWidth = Integer.parseInt(root.getAttribute("tilewidth"));
+        tileHeight = Integer.parseInt(root.getAttribute("tileheight"));
+        polylines = Collections.unmodifiableList(readPolylines(root));
+        tilesets = readTilesets(root, new File(mapFile).getParentFile());
+        layers = readLayers(root);
+        blocked = findBlockedTiles();
+    }
+
+    /**
+     * Parses an xml document
+     * @param file path to the file
+     * @return the parsed document
+     * @throws IOException when the file cannot be read or parsed
+     */
+    private static Document parse(String file) throws IOException {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new File(file));
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Malformed map file " + file, e);
+        }
+    }
+
+    /**
+     * Reads every polyline object of the map. Points are offset by the position of their object, the same way
+     * TiledMap.getAllPolylines does.
+     * @param root the map element
+     * @return the polylines in document order
+     */
+    private static List<List<Point>> readPolylines(Element root){
+        List<List<Point>> result = new ArrayList<>();
+        NodeList objects = root.getElementsByTagName("object");
+        for (int i = 0; i < objects.getLength(); i++){
+            Element object = (Element) objects.item(i);
+            NodeList lines = object.getElementsByTagName("polyline");
+            if (lines.getLength() == 0){
+                continue;
+            }
+            double originX = Double.parseDouble(object.getAttribute("x"));
+            double originY = Double.parseDouble(object.getAttribute("y"));
+            List<Point> polyline = new ArrayList<>();
+            for (String pair : ((Element) lines.item(0)).getAttribute("points").trim().split("\\s+")){
+                String[] coordinates = pair.split(",");
+                polyline.add(new Point(originX + Double.parseDouble(coordinates[0]),
+                        originY + Double.parseDouble(coordinates[1])));
+            }
+            result.add(Collections.unmodifiableList(polyline));
+        }
+        return result;
+    }
+
+    /**
+     * Reads the tilesets of the map, including the ones kept in their own TSX files
+     * @param root the map element
+     * @param directory the directory of the map file, which tileset sources are relative to
+     * @return the tilesets in order of their first tile id
+     * @throws IOException when a tileset file cannot be read
+     */
+    private static List<Tileset> readTilesets(Element root, File directory) throws IOException {
+        List<Tileset> result = new ArrayList<>();
+        NodeList elements = root.getElementsByTagName("tileset");
+        for (int i = 0; i < elements.getLength(); i++){
+            Element element = (Element) elements.item(i);
+            int firstId = Integer.parseInt(element.getAttribute("firstgid"));
+            File tilesetDirectory = directory;
+            if (element.hasAttribute("source")){
+                File source = new File(directory, element.getAttribute("source"));
+                element = parse(source.getPath()).getDocumentElement();
+                tilesetDirectory = source.getParentFile();
+            }
+            Element image = (Element) element.getElementsByTagName("image").item(0);
+            Tileset tileset = new Tileset(firstId,
+                    image == null ? null : new File(tilesetDirectory, image.getAttribute("source")).getPath(),
+                    Integer.parseInt(element.getAttribute("tilewidth")),
+                    Integer.parseInt(element.getAttribute("tileheight")));
+            NodeList tiles = element.getElementsByTagName("tile");
+            for (int j = 0; j < tiles.getLength(); j++){
+                Element tile = (Element) tiles.item(j);
+                NodeList properties = tile.getElementsByTagName("property");
+                for (int k = 0; k < properties.getLength(); k++){
+                    if (BLOCKED.equals(((Element) properties.item(k)).getAttribute("name"))){
+                        tileset.blocked.set(Integer.parseInt(tile.getAttribute("id")));
+                    }
+                }
+            }
+            result.add(tileset);
+        }
+        result.sort((a, b) -> Integer.compare(a.firstId, b.firstId));
+        return result;
+    }
+
+    /**
+     * Reads the tile ids of every tile layer of the map, with their flip flags cleared
+     * @param root the map element
+     * @return the tile ids of each layer, indexed by row * width + column, 0 for no tile
+     * @throws IOException when a layer is not stored as CSV
+     */
+    private List<int[]> readLayers(Element root) throws IOException {
+        List<int[]> result = new ArrayList<>();
+        NodeList elements = root.getElementsByTagName("layer");
+        for (int i = 0; i < elements.getLength(); i++){
+            Element data = (Element) ((Element) elements.item(i)).getElementsByTagName("data").item(0);
+            if (data == null || !"csv".equals(data.getAttribute("encoding"))){
+                throw new IOException("Map file " + mapFile + " has a layer that is not stored as CSV");
+            }
+            String[] ids = data.getTextContent().trim().split("\\s*,\\s*");
+            int[] layer = new int[width * height];
+            for (int tile = 0; tile < ids.length && tile < layer.length; tile++){
+                layer[tile] = (int) (Long.parseLong(ids[tile]) & GID_MASK);
+            }
+            result.add(layer);
+        }
+        return result;
+    }
+
+    /**
+     * Works out which tiles are blocked: those where a tile of any layer has the blocked property in its tileset,
+     * the same test TiledMap.hasProperty makes
+     * @return the blocked tiles, indexed by row * width + column
+     */
+    private BitSet findBlockedTiles(){
+        BitSet result = new BitSet(width * height);
+        for (int[] layer : layers){
+            for (int tile = 0; tile < layer.length; tile++){
+                Tileset tileset = tilesetOf(layer[tile]);
+                if (tileset != null && tileset.blocked.get(layer[tile] - tileset.firstId)){
+                    result.set(tile);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the tileset a tile id belongs to
+     * @param id the tile id
+     * @return the tileset, null for the empty tile 0 or an id before every tileset
+     */
+    private Tileset tilesetOf(int id){
+        Tileset found = null;
+        if (id > 0){
+            for (Tileset tileset : tilesets){
+                if (tileset.firstId <= id){
+                    found = tileset;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Draws every tile layer of the map into one image, in layer order, the way TiledMap draws them tile by tile.
+     * Only reads the tileset images from disk, so it does not need a window.
+     * @return the image of the whole map
+     * @throws IOException when a tileset image cannot be read
+     */
+    public BufferedImage renderTiles() throws IOException {
+        BufferedImage result = new BufferedImage(width * tileWidth, height * tileHeight, BufferedImage.TYPE_INT_ARGB);
+        Map<Tileset, BufferedImage> sheets = new HashMap<>();
+        for (Tileset tileset : tilesets){
+            if (tileset.image != null){
+                BufferedImage sheet = ImageIO.read(new File(tileset.image));
+                if (sheet == null){
+                    throw new IOException("Cannot read tileset image " + tileset.image);
+                }
+                sheets.put(tileset, sheet);
+            }
+        }
+        Graphics2D graphics = result.createGraphics();
+        try {
+            for (int[] layer : layers){
+                for (int tile = 0; tile < layer.length; tile++){
+                    Tileset tileset = tilesetOf(layer[tile]);
+                    BufferedImage sheet = tileset == null ? null : sheets.get(tileset);
+                    if (sheet == null){
+                        continue;
+                    }
+                    int local = layer[tile] - tileset.firstId;
+                    int columns = Math.max(sheet.getWidth() / tileset.tileWidth, 1);
+                    int sourceX = local % columns * tileset.tileWidth;
+                    int sourceY = local / columns * tileset.tileHeight;
+                    int x = tile % width * tileWidth;
+                    int y = tile / width * tileHeight;
+                    graphics.drawImage(sheet, x, y, x + tileset.tileWidth, y + tileset.tileHeight, sourceX, sourceY,
+                            sourceX + tileset.tileWidth, sourceY + tileset.tileHeight, null);
+                }
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return result;
+    }
+
+    /**
+     * Checks if a tile is blocked
+     * @param column the column of the tile
+     * @param row the row of the tile
+     * @return true if the tile is blocked or is not on the map
+     */
+    public boolean isBlocked(int column, int row){
+        return column < 0 || row < 0 || column >= width || row >= height || blocked.get(row * width + column);
+    }
+
+    /**
+     * Checks if the tile under a point is blocked
+     * @param x the x coordinate in pixels
+     * @param y the y coordinate in pixels
+     * @return true if the tile is blocked or the point is not on the map
+     */
+    public boolean isBlockedAt(double x, double y){
+        return x < 0 || y < 0 || isBlocked((int) (x / tileWidth), (int) (y / tileHeight));
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the path of the TMX file this map was read from
+     * @return the path of the map file
+     */
+    public String getMapFile() {
+        return mapFile;
+    }
+
+    /**
+     * Returns every polyline of the map
+     * @return the polylines
+     */
+    public List<List<Point>> getAllPolylines() {
+        return polylines;
+    }
+
+    /**
+     * Returns the width of the map in tiles
+     * @return the width in tiles
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the map in tiles
+     * @return the height in tiles
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the width of a tile in pixels
+     * @return the tile width
+     */
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    /**
+     * Returns the height of a tile in pixels
+     * @return the tile height
+     */
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    /**
+     * A tileset of the map: where its tiles start in the tile ids, its image and which of its tiles are blocked
+     */
+    private static class Tileset {
+        private final int firstId;
+        private final String image;
+        private final int tileWidth;
+        private final int tileHeight;
+        private final BitSet blocked = new BitSet();
+
+        /**
+         * Creates a tileset with no blocked tiles
+         * @param firstId the tile id of its first tile
+         * @param image the path to its image, null if it has none
+         * @param tileWidth the width of its tiles
+         * @param tileHeight the height of its tiles
+         */
+        private Tileset(int firstId, String image, int tileWidth, int tileHeight){
+            this.firstId = firstId;
+            this.image = image;
+            this.tileWidth = tileWidth;
+            this.tileHeight = tileHeight;
+        }
+    }
+}
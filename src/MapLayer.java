@@ -0,0 +1,59 @@
+import bagel.Image;
+
+import javax.imageio.ImageIO;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The tiles of a level drawn once into a single image, so the static map costs one draw call a frame instead of one
+ * per tile. bagel can only load images from files, so the map is drawn into a temporary PNG when the layer is created
+ * and the texture is loaded from it the first time the layer is drawn.
+ */
+public class MapLayer {
+    /* Attributes */
+    private final String mapFile;
+    private final File imageFile;
+    private Image image;
+
+    /**
+     * Draws the tile layers of a map into a temporary image file
+     * @param map the map
+     * @throws IOException when the tileset images cannot be read or the image cannot be written
+     */
+    public MapLayer(LevelMap map) throws IOException {
+        mapFile = map.getMapFile();
+        imageFile = File.createTempFile("shadowdefend-map", ".png");
+        imageFile.deleteOnExit();
+        ImageIO.write(map.renderTiles(), "png", imageFile);
+    }
+
+    /**
+     * Draws the map with its top left corner at the top left of the window
+     */
+    public void draw(){
+        if (image == null){
+            image = Assets.acquireImage(imageFile.getPath());
+        }
+        image.drawFromTopLeft(0, 0);
+    }
+
+    /**
+     * Gives back the image of the map, for when the level is no longer shown
+     */
+    public void release(){
+        if (image != null){
+            Assets.releaseImage(imageFile.getPath());
+            image = null;
+        }
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the path of the TMX file the layer was drawn from
+     * @return the path of the map file
+     */
+    public String getMapFile() {
+        return mapFile;
+    }
+}
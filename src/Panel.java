@@ -12,13 +12,15 @@ public abstract class Panel{
      * @param backgroundPath path to the background image
      */
     public Panel(String backgroundPath){
-        background = new Image(backgroundPath);
+        background = Assets.acquireImage(backgroundPath);
     }
 
     /**
      * Draws a panel
+     * @param gameInstance the game to show the information of
+     * @param queue the render queue of the frame
      */
-    public abstract void drawPanel(ShadowDefend gameInstance);
+    public abstract void drawPanel(Simulation gameInstance, RenderQueue queue);
 
     /* Getters and setters */
 
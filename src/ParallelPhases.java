@@ -0,0 +1,99 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs the data-parallel phases of a tick over a fork-join pool. A phase is split into chunks by index and every
+ * index only touches its own entity, so which thread runs which chunk never changes the result. Anything that
+ * touches shared state is left to the caller to do serially, in list order, once the phase has finished.
+ */
+public class ParallelPhases {
+    /* Constants */
+    private static final int DEFAULT_CHUNK = 512;
+
+    /* Attributes */
+    private final ForkJoinPool pool;
+    private final int chunk;
+
+    /**
+     * Creates phases that run on the common fork-join pool
+     */
+    public ParallelPhases(){
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK);
+    }
+
+    /**
+     * Creates phases that run on the given pool
+     * @param pool the pool to run on
+     * @param chunk the number of entities below which a phase is not split any further
+     */
+    public ParallelPhases(ForkJoinPool pool, int chunk){
+        this.pool = pool;
+        this.chunk = Math.max(chunk, 1);
+    }
+
+    /**
+     * Runs an action for every index from 0 up to count, splitting the indices over the pool. Phases too small to be
+     * worth splitting run on the calling thread.
+     * @param count the number of indices
+     * @param action the action, which must only touch the entity at the index it is given
+     */
+    public void forEach(int count, IntConsumer action){
+        if (count <= chunk || pool.getParallelism() <= 1){
+            for (int i = 0; i < count; i++){
+                action.accept(i);
+            }
+        }
+        else{
+            pool.invoke(new Chunk(action, 0, count));
+        }
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the number of threads the phases are spread over
+     * @return the parallelism of the pool
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * A range of indices, halved until it is small enough to run directly
+     */
+    private class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final IntConsumer action;
+        private final int from;
+        private final int to;
+
+        /**
+         * Creates a chunk of a phase
+         * @param action the action of the phase
+         * @param from the first index of the chunk
+         * @param to the index after the last index of the chunk
+         */
+        private Chunk(IntConsumer action, int from, int to){
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Runs the chunk, or splits it in two and runs both halves
+         */
+        @Override
+        protected void compute(){
+            if (to - from <= chunk){
+                for (int i = from; i < to; i++){
+                    action.accept(i);
+                }
+            }
+            else{
+                int middle = (from + to) >>> 1;
+                invokeAll(new Chunk(action, from, middle), new Chunk(action, middle, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+import bagel.util.Point;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The enemy path of a level measured by arc length, so positions along the path can be compared as a single number
+ * (how far along the path they are) and the parts of the path within range of a point can be worked out once.
+ * The direction and angle of every segment are also worked out once here and shared by all the enemies of the level,
+ * which walk the path by distance instead of steering towards the next point every frame.
+ */
+public class PathIndex {
+    /* Attributes */
+    private final List<Point> polyline;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] cumulative;
+    private final double[] lengths;
+    private final double[] directionX;
+    private final double[] directionY;
+    private final double[] angles;
+
+    /**
+     * Measures the given path
+     * @param polyline the path enemies walk
+     */
+    public PathIndex(List<Point> polyline){
+        this.polyline = polyline;
+        int points = polyline.size();
+        int segments = Math.max(points - 1, 0);
+        xs = new double[points];
+        ys = new double[points];
+        cumulative = new double[points];
+        lengths = new double[segments];
+        directionX = new double[segments];
+        directionY = new double[segments];
+        angles = new double[segments];
+        for (int i = 0; i < points; i++){
+            xs[i] = polyline.get(i).x;
+            ys[i] = polyline.get(i).y;
+            if (i > 0){
+                double dx = xs[i] - xs[i - 1];
+                double dy = ys[i] - ys[i - 1];
+                lengths[i - 1] = Math.hypot(dx, dy);
+                cumulative[i] = cumulative[i - 1] + lengths[i - 1];
+                if (lengths[i - 1] > 0){
+                    directionX[i - 1] = dx / lengths[i - 1];
+                    directionY[i - 1] = dy / lengths[i - 1];
+                    angles[i - 1] = Math.atan2(dy, dx);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the segment a distance along the path is on, searching forwards from a segment already passed
+     * @param distance the distance along the path
+     * @param from a segment at or before the one the distance is on
+     * @return the index of the segment, the last segment for distances past the end of the path
+     */
+    public int segmentAt(double distance, int from){
+        int segment = segmentOf(from);
+        while (segment < lengths.length - 1 && distance >= cumulative[segment + 1]){
+            segment++;
+        }
+        return segment;
+    }
+
+    /**
+     * Returns the x coordinate of the point a distance along the path, taking it to be on the given segment
+     * @param segment the segment, from segmentAt
+     * @param distance the distance along the path
+     * @return the x coordinate
+     */
+    public double xAt(int segment, double distance){
+        return xs[segment] + directionX[segment] * (distance - cumulative[segment]);
+    }
+
+    /**
+     * Returns the y coordinate of the point a distance along the path, taking it to be on the given segment
+     * @param segment the segment, from segmentAt
+     * @param distance the distance along the path
+     * @return the y coordinate
+     */
+    public double yAt(int segment, double distance){
+        return ys[segment] + directionY[segment] * (distance - cumulative[segment]);
+    }
+
+    /**
+     * Returns how much of the offset of an enemy that spawned off the path is left at a distance along the path.
+     * The offset shrinks steadily to nothing, so children spawned around their parent walk back onto the path.
+     * @param distance the distance along the path
+     * @param offsetEnd the distance along the path at which the offset is gone
+     * @param offsetSpan the distance over which the offset shrinks
+     * @return the fraction of the offset left, from 1 where the enemy spawned to 0 at offsetEnd
+     */
+    public static double offsetLeft(double distance, double offsetEnd, double offsetSpan){
+        return offsetSpan > 0 ? Math.max(0, (offsetEnd - distance) / offsetSpan) : 0;
+    }
+
+    /**
+     * Returns how far along the path a point is, taking the point to be on the segment leading from the given
+     * polyline point to the next one
+     * @param currPoint the polyline point the segment starts at
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @return the arc length along the path of the closest point on the segment
+     */
+    public double progressOf(int currPoint, double x, double y){
+        int segment = segmentOf(currPoint);
+        return cumulative[segment] + along(segment, x, y) * lengths[segment];
+    }
+
+    /**
+     * Works out the parts of the path that lie within a circle
+     * @param centre the centre of the circle
+     * @param radius the radius of the circle
+     * @return the sorted, non-overlapping arc length intervals inside the circle as start, end pairs
+     */
+    public double[] rangeIntervals(Point centre, double radius){
+        double[] intervals = new double[2 * lengths.length];
+        int count = 0;
+        for (int segment = 0; segment < lengths.length; segment++){
+            double dx = xs[segment + 1] - xs[segment];
+            double dy = ys[segment + 1] - ys[segment];
+            double fx = xs[segment] - centre.x;
+            double fy = ys[segment] - centre.y;
+
+            // Solve |f + t * d| = radius for the part of the segment (0 <= t <= 1) inside the circle
+            double a = dx * dx + dy * dy;
+            double b = 2 * (fx * dx + fy * dy);
+            double c = fx * fx + fy * fy - radius * radius;
+            double start;
+            double end;
+            if (a == 0){
+                if (c > 0){
+                    continue;
+                }
+                start = 0;
+                end = 0;
+            }
+            else {
+                double discriminant = b * b - 4 * a * c;
+                if (discriminant < 0){
+                    continue;
+                }
+                double root = Math.sqrt(discriminant);
+                start = Math.max((-b - root) / (2 * a), 0);
+                end = Math.min((-b + root) / (2 * a), 1);
+                if (start > end){
+                    continue;
+                }
+            }
+            start = cumulative[segment] + start * lengths[segment];
+            end = cumulative[segment] + end * lengths[segment];
+
+            // Segments share their end points, so join intervals that touch
+            if (count > 0 && start <= intervals[count - 1]){
+                intervals[count - 1] = Math.max(intervals[count - 1], end);
+            }
+            else {
+                intervals[count++] = start;
+                intervals[count++] = end;
+            }
+        }
+        return Arrays.copyOf(intervals, count);
+    }
+
+    /**
+     * Returns the segment an enemy heading from the given polyline point is on, the last segment for the end of the
+     * path
+     * @param currPoint the polyline point
+     * @return the index of the segment
+     */
+    public int segmentOf(int currPoint){
+        return Math.max(Math.min(currPoint, lengths.length - 1), 0);
+    }
+
+    /**
+     * Projects a point onto a segment
+     * @param segment the index of the segment
+     * @param x the x coordinate of the point to project
+     * @param y the y coordinate of the point to project
+     * @return how far along the segment the closest point is, from 0 at its start to 1 at its end
+     */
+    private double along(int segment, double x, double y){
+        if (lengths[segment] == 0){
+            return 0;
+        }
+        double dx = xs[segment + 1] - xs[segment];
+        double dy = ys[segment + 1] - ys[segment];
+        double t = ((x - xs[segment]) * dx + (y - ys[segment]) * dy) / (lengths[segment] * lengths[segment]);
+        return Math.max(0, Math.min(1, t));
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the total length of the path
+     * @return the length of the path
+     */
+    public double getLength() {
+        return cumulative.length == 0 ? 0 : cumulative[cumulative.length - 1];
+    }
+
+    /**
+     * Returns the distance along the path at which a segment ends
+     * @param segment the index of the segment
+     * @return the arc length at the end of the segment
+     */
+    public double getSegmentEnd(int segment) {
+        return cumulative[segment + 1];
+    }
+
+    /**
+     * Returns the angle of a segment, which enemies on it face
+     * @param segment the index of the segment
+     * @return the angle of the segment
+     */
+    public double getAngle(int segment) {
+        return angles[segment];
+    }
+
+    /**
+     * Returns the path as a list of points
+     * @return the polyline
+     */
+    public List<Point> getPolyline() {
+        return polyline;
+    }
+}
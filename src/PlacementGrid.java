@@ -0,0 +1,137 @@
+import bagel.util.Point;
+import bagel.util.Rectangle;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Where towers can be placed on a level. Keeps the towers of the level by the map tiles they cover, so checking a
+ * point only looks at the blocked bit of its tile and the few towers over that tile, however many towers there are.
+ */
+public class PlacementGrid {
+    /* Attributes */
+    private final LevelMap map;
+    private final int columns;
+    private final int rows;
+    private final List<List<Defence>> cells;
+    private final BitSet occupied;
+    private int version;
+
+    /**
+     * Creates an empty grid over the tiles of a map
+     * @param map the map
+     */
+    public PlacementGrid(LevelMap map){
+        this.map = map;
+        columns = map.getWidth();
+        rows = map.getHeight();
+        cells = new ArrayList<>(columns * rows);
+        for (int i = 0; i < columns * rows; i++){
+            cells.add(null);
+        }
+        occupied = new BitSet(columns * rows);
+    }
+
+    /**
+     * Adds a tower to every tile its bounding box covers
+     * @param tower the tower
+     */
+    public void add(Defence tower){
+        Rectangle rect = tower.getRect();
+        int firstColumn = Math.max(column(rect.left()), 0);
+        int lastColumn = Math.min(column(rect.right()), columns - 1);
+        int firstRow = Math.max(row(rect.top()), 0);
+        int lastRow = Math.min(row(rect.bottom()), rows - 1);
+        for (int row = firstRow; row <= lastRow; row++){
+            for (int column = firstColumn; column <= lastColumn; column++){
+                int cell = row * columns + column;
+                if (cells.get(cell) == null){
+                    cells.set(cell, new ArrayList<>());
+                }
+                cells.get(cell).add(tower);
+                occupied.set(cell);
+            }
+        }
+        version++;
+    }
+
+    /**
+     * Removes every tower from the grid
+     */
+    public void clear(){
+        for (int cell = occupied.nextSetBit(0); cell >= 0; cell = occupied.nextSetBit(cell + 1)){
+            cells.get(cell).clear();
+        }
+        occupied.clear();
+        version++;
+    }
+
+    /**
+     * Checks if a tower can be placed at a point: the point is on the map, its tile is not blocked and it is not on
+     * top of another tower
+     * @param point the point
+     * @return true if a tower can be placed there
+     */
+    public boolean canPlace(Point point){
+        if (map.isBlockedAt(point.x, point.y)){
+            return false;
+        }
+        int cell = row(point.y) * columns + column(point.x);
+        if (occupied.get(cell)){
+            for (Defence tower : cells.get(cell)){
+                if (tower.getRect().intersects(point)){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a whole tile is free for towers: it is on the map, not blocked and no tower covers any of it
+     * @param column the column of the tile
+     * @param row the row of the tile
+     * @return true if the tile is free
+     */
+    public boolean isFree(int column, int row){
+        return !map.isBlocked(column, row) && !occupied.get(row * columns + column);
+    }
+
+    /**
+     * Returns the column of the tile an x coordinate is in
+     * @param x the x coordinate
+     * @return the column, which may be off the map
+     */
+    private int column(double x){
+        return (int) Math.floor(x / map.getTileWidth());
+    }
+
+    /**
+     * Returns the row of the tile a y coordinate is in
+     * @param y the y coordinate
+     * @return the row, which may be off the map
+     */
+    private int row(double y){
+        return (int) Math.floor(y / map.getTileHeight());
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the map the grid covers
+     * @return the map
+     */
+    public LevelMap getMap() {
+        return map;
+    }
+
+    /**
+     * Returns a number that changes whenever a tower is added or the grid is cleared, so drawings of the grid know
+     * when to redo themselves
+     * @return the version of the grid
+     */
+    public int getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,68 @@
+import bagel.Drawing;
+import bagel.util.Colour;
+
+import java.util.Arrays;
+
+/**
+ * Shades the tiles a tower cannot be placed on while the player is holding one. The shaded tiles of each row are
+ * merged into runs, worked out again only when the placement grid changes, so the overlay is a few dozen rectangles a
+ * frame rather than one per tile.
+ */
+public class PlacementOverlay {
+    /* Constants */
+    private static final Colour SHADE = new Colour(1, 0, 0, 0.25);
+    private static final int VALUES_PER_RUN = 4;
+
+    /* Attributes */
+    private PlacementGrid grid;
+    private int version;
+    private double[] runs = new double[0];
+    private int runCount;
+
+    /**
+     * Draws the shaded tiles straight away, so they go over the map and under everything in the render queue
+     * @param grid the placement grid of the level
+     */
+    public void draw(PlacementGrid grid){
+        if (grid != this.grid || grid.getVersion() != version){
+            rebuild(grid);
+        }
+        for (int i = 0; i < runCount * VALUES_PER_RUN; i += VALUES_PER_RUN){
+            Drawing.drawRectangle(runs[i], runs[i + 1], runs[i + 2], runs[i + 3], SHADE);
+        }
+    }
+
+    /**
+     * Works out the runs of tiles that are not free in every row of the grid
+     * @param grid the placement grid of the level
+     */
+    private void rebuild(PlacementGrid grid){
+        this.grid = grid;
+        version = grid.getVersion();
+        LevelMap map = grid.getMap();
+        int tileWidth = map.getTileWidth();
+        int tileHeight = map.getTileHeight();
+        runCount = 0;
+        for (int row = 0; row < map.getHeight(); row++){
+            int column = 0;
+            while (column < map.getWidth()){
+                if (grid.isFree(column, row)){
+                    column++;
+                    continue;
+                }
+                int start = column;
+                while (column < map.getWidth() && !grid.isFree(column, row)){
+                    column++;
+                }
+                if ((runCount + 1) * VALUES_PER_RUN > runs.length){
+                    runs = Arrays.copyOf(runs, Math.max(runs.length * 2, VALUES_PER_RUN * map.getHeight()));
+                }
+                int i = runCount++ * VALUES_PER_RUN;
+                runs[i] = start * tileWidth;
+                runs[i + 1] = row * tileHeight;
+                runs[i + 2] = (column - start) * tileWidth;
+                runs[i + 3] = tileHeight;
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+import bagel.util.Point;
+
+import java.util.Random;
+
+/**
+ * The ways BalanceRunner spends the player's money between waves. Towers go at random spots beside the enemy path, so
+ * every seed tries a different layout; the money each strategy spends and the towers it buys are what tell them apart.
+ */
+public enum PlacementStrategy {
+    NONE("none") {
+        @Override
+        protected Defence choose(Simulation simulation, Point spot, int built){
+            return null;
+        }
+    },
+    TANKS("tanks") {
+        @Override
+        protected Defence choose(Simulation simulation, Point spot, int built){
+            return buy(simulation, spot, Archetypes.TANK);
+        }
+    },
+    SUPER_TANKS("supertanks") {
+        @Override
+        protected Defence choose(Simulation simulation, Point spot, int built){
+            return buy(simulation, spot, Archetypes.SUPER_TANK);
+        }
+    },
+    MIXED("mixed") {
+        @Override
+        protected Defence choose(Simulation simulation, Point spot, int built){
+            // Every third tower is a super tank, falling back to a tank when it cannot be afforded
+            Defence superTank = built % 3 == 2 ? buy(simulation, spot, Archetypes.SUPER_TANK) : null;
+            return superTank != null ? superTank : buy(simulation, spot, Archetypes.TANK);
+        }
+    },
+    AIR_SUPPORT("airsupport") {
+        @Override
+        public void place(Simulation simulation, Random random){
+            PathIndex path = simulation.getGameLevel().getPathIndex();
+            int price = Archetypes.standard().getDefence(Archetypes.AIR_SUPPORT).getCost();
+            while (simulation.getMoney() >= price){
+                int segment = random.nextInt(path.getPolyline().size() - 1);
+                simulation.placeAirSupport(path.getPolyline().get(segment));
+            }
+        }
+
+        @Override
+        protected Defence choose(Simulation simulation, Point spot, int built){
+            return null;
+        }
+    };
+
+    /* Constants */
+    private static final double BUY_PANEL_HEIGHT = 100;
+    private static final double STATUS_PANEL_HEIGHT = 25;
+    private static final double PATH_CLEARANCE = 40;
+    private static final double SPOT_SPREAD = 60;
+    private static final double TOWER_SPACING = 50;
+    private static final int ATTEMPTS = 200;
+
+    /* Attributes */
+    private final String name;
+
+    /**
+     * Creates a strategy
+     * @param name the name of the strategy on the command line
+     */
+    PlacementStrategy(String name){
+        this.name = name;
+    }
+
+    /**
+     * Spends the player's money before a wave starts, placing towers at random spots beside the path until the
+     * strategy picks nothing more or no free spot can be found
+     * @param simulation the game
+     * @param random the random numbers used to pick spots
+     */
+    public void place(Simulation simulation, Random random){
+        int built = simulation.getGameLevel().getLevelDefence().size();
+        for (int attempt = 0; attempt < ATTEMPTS; attempt++){
+            Point spot = randomSpot(simulation, random);
+            if (spot == null){
+                continue;
+            }
+            Defence defence = choose(simulation, spot, built);
+            if (defence == null){
+                return;
+            }
+            simulation.placeDefence(defence);
+            built++;
+        }
+    }
+
+    /**
+     * Picks the tower to place at a spot
+     * @param simulation the game
+     * @param spot the spot
+     * @param built the number of towers already in the level
+     * @return the tower, null to stop placing towers for this wave
+     */
+    protected abstract Defence choose(Simulation simulation, Point spot, int built);
+
+    /**
+     * Creates a tower of the given type if the player can afford it
+     * @param simulation the game
+     * @param spot where to place the tower
+     * @param name the name of the defence archetype
+     * @return the tower, null if the player cannot afford it
+     */
+    private static Defence buy(Simulation simulation, Point spot, String name){
+        DefenceArchetype archetype = Archetypes.standard().getDefence(name);
+        return simulation.getMoney() >= archetype.getCost() ? new Defence(spot, archetype) : null;
+    }
+
+    /**
+     * Picks a random point beside the path that is on the map, clear of the path and the panels, not on a blocked tile
+     * and not too close to another tower
+     * @param simulation the game
+     * @param random the random numbers used to pick the point
+     * @return the point, null if the one picked is not free
+     */
+    private static Point randomSpot(Simulation simulation, Random random){
+        Level level = simulation.getGameLevel();
+        PathIndex path = level.getPathIndex();
+        double distance = random.nextDouble() * path.getLength();
+        int segment = path.segmentAt(distance, 0);
+        double side = (random.nextBoolean() ? 1 : -1) * (PATH_CLEARANCE + random.nextDouble() * SPOT_SPREAD);
+        double angle = path.getAngle(segment);
+        Point spot = new Point(path.xAt(segment, distance) - Math.sin(angle) * side,
+                path.yAt(segment, distance) + Math.cos(angle) * side);
+
+        if (spot.x < 0 || spot.x > Simulation.WIDTH || spot.y < BUY_PANEL_HEIGHT
+                || spot.y > Simulation.HEIGHT - STATUS_PANEL_HEIGHT){
+            return null;
+        }
+        if (path.rangeIntervals(spot, PATH_CLEARANCE).length > 0 || !level.getPlacementGrid().canPlace(spot)){
+            return null;
+        }
+        for (Defence defence : level.getLevelDefence()){
+            if (defence.getCentre().distanceTo(spot) < TOWER_SPACING){
+                return null;
+            }
+        }
+        return spot;
+    }
+
+    /**
+     * Returns the strategy with the given name
+     * @param name the name used on the command line
+     * @return the strategy, null if there is none with that name
+     */
+    public static PlacementStrategy fromName(String name){
+        for (PlacementStrategy strategy : values()){
+            if (strategy.name.equals(name)){
+                return strategy;
+            }
+        }
+        return null;
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the name of the strategy on the command line
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+}
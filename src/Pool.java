@@ -0,0 +1,107 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
+
+/**
+ * A pool of reusable game entities. Freed entities are handed out again by obtain instead of allocating new ones;
+ * the caller is responsible for resetting an entity after obtaining it.
+ * @param <T> the type of entity pooled
+ */
+public class Pool<T> {
+    /* Attributes */
+    private final String name;
+    private final Supplier<T> factory;
+    private final Deque<T> idle = new ArrayDeque<>();
+    private int live;
+    private int highWater;
+    private long created;
+
+    /**
+     * Creates an empty pool
+     * @param name the name of the pool, used in stats
+     * @param factory creates a new entity when the pool has none idle
+     */
+    public Pool(String name, Supplier<T> factory){
+        this.name = name;
+        this.factory = factory;
+    }
+
+    /**
+     * Takes an idle entity out of the pool, creating one if there are none
+     * @return the entity
+     */
+    public T obtain(){
+        T item = idle.poll();
+        if (item == null){
+            item = factory.get();
+            created++;
+        }
+        live++;
+        highWater = Math.max(highWater, live);
+        return item;
+    }
+
+    /**
+     * Returns an entity to the pool once it is no longer in the game
+     * @param item the entity
+     */
+    public void free(T item){
+        live--;
+        idle.push(item);
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the name of the pool
+     * @return the name of the pool
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of entities currently handed out
+     * @return the number of live entities
+     */
+    public int getLive() {
+        return live;
+    }
+
+    /**
+     * Returns every idle entity, for when the pool is being discarded
+     * @return the idle entities
+     */
+    public Iterable<T> getIdle() {
+        return idle;
+    }
+
+    /**
+     * Returns the number of entities waiting in the pool
+     * @return the number of idle entities
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Returns the largest number of entities that were handed out at once
+     * @return the high-water mark
+     */
+    public int getHighWater() {
+        return highWater;
+    }
+
+    /**
+     * Returns the number of entities the pool has had to create
+     * @return the number of entities created
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + live + " live, " + idle.size() + " idle, " + highWater + " peak, " + created + " created";
+    }
+}
@@ -1,9 +1,12 @@
-import bagel.DrawOptions;
-import bagel.Font;
-import bagel.util.Colour;
 import bagel.util.Point;
+import bagel.util.Rectangle;
 import bagel.util.Vector2;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
 /**
  * A projectile
  */
@@ -12,57 +15,198 @@ public class Projectile extends Sprite {
     private static final double SPEED = 10;
 
     /* Attributes */
-    private final Enemy target;
-    private final Font damageIndicator;
-    private final int damage;
+    private long target;
+    private int damage;
     private boolean hit;
+    private boolean pendingHit;
 
     /**
      * Creates a new projectile
      * @param point the location it fires from
      * @param imageSource its image source
-     * @param target its target
+     * @param target the handle of its target, HandleTable.NONE for none
      * @param damage its damage
      */
-    public Projectile(Point point, String imageSource, Enemy target, int damage) {
+    public Projectile(Point point, String imageSource, long target, int damage) {
         super(point, imageSource);
         this.target = target;
         this.damage = damage;
-        damageIndicator = new Font("res/fonts/DejaVuSans-Bold.ttf", 14);
         hit = false;
     }
 
+    /**
+     * Puts a pooled projectile back into flight
+     * @param point the location it fires from
+     * @param target the handle of its target, HandleTable.NONE for none
+     * @param damage its damage
+     */
+    public void reset(Point point, long target, int damage){
+        setCentre(point);
+        this.target = target;
+        this.damage = damage;
+        hit = false;
+        pendingHit = false;
+    }
+
+    /**
+     * Finishes the projectile if its target has left the level, so it is removed along with the enemy it was
+     * chasing. Explosives have no target and are left alone.
+     * @param game the level which contains the projectile
+     */
+    public void checkTarget(Level game){
+        if (target != HandleTable.NONE && game.getEnemy(target) == null){
+            hit = true;
+            pendingHit = false;
+        }
+    }
+
+    /**
+     * Drops the target and finishes the projectile, for when it goes back to its pool
+     */
+    public void forgetTarget(){
+        target = HandleTable.NONE;
+        hit = true;
+        pendingHit = false;
+    }
+
+    /**
+     * Writes the state of the projectile: where it is, its damage, whether it has hit and its target as an index into
+     * the enemies of the level
+     * @param out where to write the state
+     * @param enemyIndex the index of every enemy of the level by its handle
+     * @throws IOException when the state cannot be written
+     */
+    public void writeState(DataOutput out, Map<Long, Integer> enemyIndex) throws IOException {
+        Rectangle rect = getRect();
+        out.writeDouble(rect.left());
+        out.writeDouble(rect.top());
+        out.writeInt(damage);
+        out.writeBoolean(hit);
+        Integer index = enemyIndex.get(target);
+        out.writeInt(index == null ? -1 : index);
+    }
+
+    /**
+     * Reads back the state written by writeState into a projectile taken from its pool
+     * @param in where to read the state from
+     * @param version the version of the snapshot the state is in
+     * @param enemies the enemies of the level, in the order they were indexed when written
+     * @throws IOException when the state cannot be read
+     */
+    public void readState(DataInput in, int version, Enemy[] enemies) throws IOException {
+        getRect().moveTo(new Point(in.readDouble(), in.readDouble()));
+        damage = in.readInt();
+        hit = in.readBoolean();
+        pendingHit = false;
+        int index = in.readInt();
+        if (index >= enemies.length){
+            throw new IOException("Projectile targets enemy " + index + " of " + enemies.length);
+        }
+        target = index < 0 ? HandleTable.NONE : enemies[index].getHandle();
+    }
+
     /**
      * Controls how the projectile moves
      * @param game the level which contains the projectile
      */
     public void move(Level game) {
-        if (!hit){
-            double dx = target.getCentre().x - getCentre().x;
-            double dy = target.getCentre().y - getCentre().y;
+        home(game);
+        resolve(game);
+    }
+
+    /**
+     * Flies the projectile towards its target and notes whether it has hit. Only reads the target, so the projectiles
+     * of a level can home in parallel.
+     * @param game the level which contains the projectile
+     */
+    public void home(Level game) {
+        Enemy target = game.getEnemy(this.target);
+        if (!hit && target != null){
+            Point centre = getCentre();
+            Point targetCentre = target.getCentre();
+            double dx = targetCentre.x - centre.x;
+            double dy = targetCentre.y - centre.y;
             double distance = Math.sqrt(dx * dx + dy * dy);
-            double totalSpeed = SPEED * ShadowDefend.getTimescale();
-            double vx = totalSpeed * dx / (distance);
-            double vy = totalSpeed * dy / (distance);
+            if (distance == 0){
+                pendingHit = true;
+                return;
+            }
+            double vx = SPEED * dx / (distance);
+            double vy = SPEED * dy / (distance);
 
-            // Changed hit logic to when the centre of the projectile intersects the enemy to make it look better
-            if(target.getRect().intersects(getCentre())){
-                hit = true;
-                target.deductHealth(damage);
+            // The centre of the projectile hits the enemy if it passes through it at any point during the step, so a
+            // projectile never flies past a small or fast target and has to turn back
+            pendingHit = sweepHits(centre.x, centre.y, vx, vy, target.getRect());
+            super.move(new Vector2(vx, vy));
+        }
+    }
 
+    /**
+     * Checks if a point moving along a straight step passes through a rectangle at any point of the step, by clipping
+     * the step against the rectangle one axis at a time
+     * @param x the x coordinate the point starts at
+     * @param y the y coordinate the point starts at
+     * @param vx how far the point moves along x
+     * @param vy how far the point moves along y
+     * @param rect the rectangle
+     * @return true if the step touches the rectangle
+     */
+    private static boolean sweepHits(double x, double y, double vx, double vy, Rectangle rect){
+        double enter = 0;
+        double exit = 1;
+        if (vx == 0){
+            if (x < rect.left() || x > rect.right()){
+                return false;
             }
-            // Added rudimentary damage indicators
-            damageIndicator.drawString("-" + damage, target.getCentre().x, target.getCentre().y,
-                    new DrawOptions().setBlendColour(Colour.BLACK));
-            super.move(new Vector2(vx, vy));
         }
-        if (target.getCompleted()){
+        else{
+            double near = (rect.left() - x) / vx;
+            double far = (rect.right() - x) / vx;
+            enter = Math.max(enter, Math.min(near, far));
+            exit = Math.min(exit, Math.max(near, far));
+        }
+        if (vy == 0){
+            if (y < rect.top() || y > rect.bottom()){
+                return false;
+            }
+        }
+        else{
+            double near = (rect.top() - y) / vy;
+            double far = (rect.bottom() - y) / vy;
+            enter = Math.max(enter, Math.min(near, far));
+            exit = Math.min(exit, Math.max(near, far));
+        }
+        return enter <= exit;
+    }
+
+    /**
+     * Deals the damage of a hit noted by home, and finishes the projectile if its target has died or left the map.
+     * Changes the target, so projectiles must resolve one at a time in the order of the level.
+     * @param game the level which contains the projectile
+     */
+    public void resolve(Level game) {
+        Enemy target = game.getEnemy(this.target);
+        if (pendingHit){
+            pendingHit = false;
+            hit = true;
+            game.hit(target, damage);
+        }
+        if (!hit && (target == null || target.getCompleted())){
             hit = true;
         }
     }
 
     /* Getters and setters */
 
+    /**
+     * Returns the layer of the render queue projectiles are drawn in, above the towers that fire them
+     * @return the projectile layer
+     */
+    @Override
+    public int getLayer() {
+        return RenderQueue.PROJECTILES;
+    }
+
     /**
      * Returns a boolean value indicating whether the projectile has completed its job
      * @return true if it has hit the target or the enemy has died
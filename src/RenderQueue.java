@@ -0,0 +1,192 @@
+import bagel.DrawOptions;
+import bagel.Font;
+import bagel.Image;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Collects the draw commands of a frame and submits them to bagel sorted by layer and then by texture, so every sprite
+ * drawn from the same image is drawn in one run and bagel only has to bind that texture once. Images in a layer are
+ * drawn before the text in it, and commands with the same layer and texture keep the order they were added in.
+ */
+public class RenderQueue {
+    /* Constants */
+    public static final int TOWERS = 0;
+    public static final int AIRCRAFT = 1;
+    public static final int PROJECTILES = 2;
+    public static final int BUY_PANEL = 3;
+    public static final int BUY_PANEL_ITEMS = 4;
+    public static final int ENEMIES = 5;
+    public static final int INDICATOR = 6;
+    public static final int STATUS_PANEL = 7;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int ORDER_BITS = 24;
+    private static final int TEXTURE_BITS = 23;
+    private static final long ORDER_MASK = (1L << ORDER_BITS) - 1;
+    private static final int TEXT_SHIFT = ORDER_BITS + TEXTURE_BITS;
+    private static final int LAYER_SHIFT = TEXT_SHIFT + 1;
+
+    /* Attributes */
+    private final Map<Object, Integer> textureIds = new IdentityHashMap<>();
+    private final DrawOptions rotation = new DrawOptions();
+    private Command[] commands = new Command[INITIAL_CAPACITY];
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int size;
+    private int drawCalls;
+    private int stateChanges;
+
+    /**
+     * Adds an image to the frame
+     * @param layer the layer to draw it in
+     * @param image the image
+     * @param x the x coordinate of the centre of the image
+     * @param y the y coordinate of the centre of the image
+     * @param angle the rotation of the image
+     */
+    public void draw(int layer, Image image, double x, double y, double angle){
+        Command command = add(layer, false, image);
+        command.image = image;
+        command.x = x;
+        command.y = y;
+        command.angle = angle;
+    }
+
+    /**
+     * Adds an image to the frame with no rotation
+     * @param layer the layer to draw it in
+     * @param image the image
+     * @param x the x coordinate of the centre of the image
+     * @param y the y coordinate of the centre of the image
+     */
+    public void draw(int layer, Image image, double x, double y){
+        draw(layer, image, x, y, 0);
+    }
+
+    /**
+     * Adds a line of text to the frame
+     * @param layer the layer to draw it in
+     * @param font the font
+     * @param text the text
+     * @param x the x coordinate of the bottom left of the text
+     * @param y the y coordinate of the bottom left of the text
+     * @param options the options to draw the text with, null for none
+     */
+    public void drawString(int layer, Font font, String text, double x, double y, DrawOptions options){
+        Command command = add(layer, true, font);
+        command.font = font;
+        command.text = text;
+        command.x = x;
+        command.y = y;
+        command.options = options;
+    }
+
+    /**
+     * Adds a line of text to the frame
+     * @param layer the layer to draw it in
+     * @param font the font
+     * @param text the text
+     * @param x the x coordinate of the bottom left of the text
+     * @param y the y coordinate of the bottom left of the text
+     */
+    public void drawString(int layer, Font font, String text, double x, double y){
+        drawString(layer, font, text, x, y, null);
+    }
+
+    /**
+     * Sorts the commands of the frame, submits them to bagel and empties the queue for the next frame
+     */
+    public void flush(){
+        Arrays.sort(keys, 0, size);
+        drawCalls = 0;
+        stateChanges = 0;
+        Object bound = null;
+        for (int i = 0; i < size; i++){
+            Command command = commands[(int) (keys[i] & ORDER_MASK)];
+            Object texture = command.image != null ? command.image : command.font;
+            if (texture != bound){
+                stateChanges++;
+                bound = texture;
+            }
+            drawCalls++;
+            if (command.image != null){
+                command.image.draw(command.x, command.y, rotation.setRotation(command.angle));
+            }
+            else if (command.options != null){
+                command.font.drawString(command.text, command.x, command.y, command.options);
+            }
+            else{
+                command.font.drawString(command.text, command.x, command.y);
+            }
+            command.clear();
+        }
+        size = 0;
+        textureIds.clear();
+    }
+
+    /**
+     * Takes the next free command and gives it its sort key
+     * @param layer the layer of the command
+     * @param text whether the command draws text
+     * @param texture the image or font the command draws with
+     * @return the command to fill in
+     */
+    private Command add(int layer, boolean text, Object texture){
+        if (size == commands.length){
+            commands = Arrays.copyOf(commands, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        if (commands[size] == null){
+            commands[size] = new Command();
+        }
+        Integer textureId = textureIds.get(texture);
+        if (textureId == null){
+            textureId = textureIds.size();
+            textureIds.put(texture, textureId);
+        }
+        keys[size] = (long) layer << LAYER_SHIFT | (text ? 1L : 0L) << TEXT_SHIFT | (long) textureId << ORDER_BITS | size;
+        return commands[size++];
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the number of draw calls submitted in the last frame
+     * @return the number of draw calls
+     */
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * Returns the number of times the last frame switched to drawing a different image or font
+     * @return the number of state changes
+     */
+    public int getStateChanges() {
+        return stateChanges;
+    }
+
+    /**
+     * A draw command, reused from frame to frame
+     */
+    private static class Command {
+        private Image image;
+        private Font font;
+        private String text;
+        private DrawOptions options;
+        private double x;
+        private double y;
+        private double angle;
+
+        /**
+         * Drops the references held by the command so finished frames do not keep assets alive
+         */
+        private void clear(){
+            image = null;
+            font = null;
+            text = null;
+            options = null;
+        }
+    }
+}
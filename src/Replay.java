@@ -0,0 +1,189 @@
+import bagel.util.Point;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Plays a recording made by InputRecorder back headless, as fast as the CPU allows, and checks the game ends in the
+ * same state it was recorded in. A recording without an END entry, from a game that was killed, is played up to its
+ * last action and cannot be checked.
+ *
+ * Usage: java Replay recording
+ */
+public class Replay {
+    /* Constants */
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MORE = 0x80;
+
+    /* Attributes */
+    private Simulation simulation;
+    private long recordedHash;
+    private boolean ended;
+
+    /**
+     * Entry point for replaying a recording from the command line. Exits with status 1 if the final state does not
+     * match the recording.
+     * @param args the path to the recording
+     * @throws IOException when the recording or the level files cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1){
+            System.err.println("usage: java Replay recording");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        Replay replay = new Replay();
+        try (InputStream stream = new FileInputStream(args[0])){
+            replay.play(stream);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Simulation simulation = replay.getSimulation();
+        System.out.printf("Replayed %d ticks in %.2f s (%.0f ticks/s)%n", simulation.getTickCount(), seconds,
+                simulation.getTickCount() / seconds);
+        if (!replay.isEnded()){
+            System.out.printf("Recording has no end, state hash %016x%n", simulation.stateHash());
+        }
+        else if (replay.matches()){
+            System.out.printf("State hash %016x matches%n", simulation.stateHash());
+        }
+        else {
+            System.out.printf("State hash %016x does not match recorded %016x%n", simulation.stateHash(),
+                    replay.getRecordedHash());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays a recording through a new game
+     * @param stream the recording
+     * @throws IOException when the recording is not valid or the level files cannot be read
+     */
+    public void play(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != InputRecorder.MAGIC){
+            throw new IOException("Not a ShadowDefend recording");
+        }
+        int version = in.readUnsignedByte();
+        if (version < 1 || version > InputRecorder.VERSION){
+            throw new IOException("Unsupported recording version " + version);
+        }
+        long seed = in.readLong();
+        LevelCatalogue catalogue = version == 1 ? LevelCatalogue.readFirstVersion(in) : LevelCatalogue.read(in);
+        simulation = new Simulation(catalogue, false, false, seed);
+
+        long tick = 0;
+        int code;
+        while ((code = in.read()) >= 0){
+            InputAction action = InputAction.fromCode(code);
+            if (action == null){
+                throw new IOException("Unknown action code " + code + " after tick " + tick);
+            }
+            try {
+                tick += readVarLong(in);
+                Point point = action.hasPoint() ? new Point(in.readDouble(), in.readDouble()) : null;
+                while (simulation.getTickCount() < tick){
+                    simulation.tick();
+                }
+                if (action == InputAction.END){
+                    recordedHash = in.readLong();
+                    ended = true;
+                    return;
+                }
+                apply(action, point);
+            } catch (EOFException e) {
+                // The game was killed part way through writing an action, which is treated as the end
+                return;
+            }
+        }
+    }
+
+    /**
+     * Performs a recorded player action on the game
+     * @param action the action
+     * @param point the point of a placement
+     * @throws IOException when the level files cannot be read on a restart
+     */
+    private void apply(InputAction action, Point point) throws IOException {
+        switch (action){
+            case PLACE_TANK:
+                simulation.placeTank(point);
+                break;
+            case PLACE_SUPER_TANK:
+                simulation.placeSuperTank(point);
+                break;
+            case PLACE_AIR_SUPPORT:
+                simulation.placeAirSupport(point);
+                break;
+            case START_WAVE:
+                simulation.startWave();
+                break;
+            case INCREASE_TIMESCALE:
+                simulation.increaseTimescale();
+                break;
+            case DECREASE_TIMESCALE:
+                simulation.decreaseTimescale();
+                break;
+            case RESTART:
+                simulation.restart();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Reads a number written by InputRecorder seven bits to a byte
+     * @param in the recording
+     * @return the number
+     * @throws IOException when the number cannot be read
+     */
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int next;
+        do {
+            next = in.readUnsignedByte();
+            value |= (long) (next & (VARINT_MORE - 1)) << shift;
+            shift += VARINT_BITS;
+        } while ((next & VARINT_MORE) != 0);
+        return value;
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the game the recording was played through
+     * @return the game
+     */
+    public Simulation getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * Returns a boolean value indicating whether the recording had an END entry
+     * @return true if the recording ended properly
+     */
+    public boolean isEnded() {
+        return ended;
+    }
+
+    /**
+     * Returns the state hash the game was recorded ending with
+     * @return the recorded hash
+     */
+    public long getRecordedHash() {
+        return recordedHash;
+    }
+
+    /**
+     * Returns a boolean value indicating whether the game ended in the recorded state
+     * @return true if the recording ended properly and the state hashes match
+     */
+    public boolean matches() {
+        return ended && simulation.stateHash() == recordedHash;
+    }
+}
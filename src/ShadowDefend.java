@@ -1,36 +1,44 @@
 import bagel.*;
-import bagel.util.Point;
 import bagel.util.Rectangle;
 
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * A tower defense game called ShadowDefend
  * Implementation of timescale functionality used from project 1 sample solution
+ * The game logic lives in Simulation, this class draws it and turns the player's input into actions on it
  */
 public class ShadowDefend extends AbstractGame {
     /* Constants */
-    private static final int HEIGHT = 768;
-    private static final int WIDTH = 1024;
-    private static final int DEFAULT_TIMESCALE = 1;
-    private static final int STARTING_MONEY = 500;
-    private static final int STARTING_LIVES = 25;
-    private static final int AIR_SUPPORT_OFFSET = 100;
+    private static final int HEIGHT = Simulation.HEIGHT;
+    private static final int WIDTH = Simulation.WIDTH;
+    private static final String RECORD_OPTION = "--record";
+    private static final String QUICKSAVE_FILE = "quicksave.bin";
 
 
     /* Attributes */
-    private static double timescale = DEFAULT_TIMESCALE;
-    private StatusPanel statusPanel;
-    private BuyPanel buyPanel;
-    private Level gameLevel;
-    private String gameStatus;
-    private int money;
-    private int lives;
-    private boolean waveStarted = false;
+    private final Simulation simulation;
+    private final StatusPanel statusPanel;
+    private final BuyPanel buyPanel;
+    private final RenderQueue renderQueue = new RenderQueue();
+    private final PlacementOverlay placementOverlay = new PlacementOverlay();
+    private final DamageNumbers damageNumbers = new DamageNumbers();
+    private final Map<String, MapLayer> mapLayers = new HashMap<>();
+    private MapLayer mapLayer;
+    private CompletableFuture<MapLayer> nextMapLayer;
     private boolean holdingTank = false;
     private boolean holdingSuperTank = false;
     private boolean holdingAirSupport = false;
-    private boolean gameOver = false;
+    private volatile boolean recordingFinished = false;
 
 
     /**
@@ -39,64 +47,103 @@ public class ShadowDefend extends AbstractGame {
      */
     public ShadowDefend() throws IOException {
         super(WIDTH, HEIGHT, "ShadowDefend");
-        gameLevel = new Level();
+        simulation = new Simulation();
+        simulation.setHitListener(damageNumbers);
         statusPanel = new StatusPanel();
         buyPanel = new BuyPanel();
-        money = STARTING_MONEY;
-        lives = STARTING_LIVES;
-        gameStatus = "Awaiting Start";
     }
 
     /**
-     * Entry point for the game
+     * Entry point for the game. Passing --record and a file records the player's actions to the file, to be played
+     * back with Replay.
      * @param args optional command line arguments
      * @throws Exception when file is not found
      */
     public static void main(String[] args) throws Exception {
-        new ShadowDefend().run();
+        ShadowDefend game = new ShadowDefend();
+        if (args.length == 2 && args[0].equals(RECORD_OPTION)){
+            game.simulation.startRecording(new FileOutputStream(args[1]));
+            // Only a fallback for when the JVM exits without run returning, as the hook runs on another thread and
+            // the game thread may still be part way through a frame
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                if (!game.recordingFinished){
+                    game.finishRecording();
+                }
+            }));
+        }
+        game.run();
+        game.finishRecording();
+    }
+
+    /**
+     * Ends the recording, if there is one, with the state the game finished in. Called on the game thread once the
+     * window has closed.
+     */
+    private void finishRecording(){
+        try {
+            simulation.stopRecording();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        recordingFinished = true;
     }
 
     /**
-     * Updates the game state 60 frames per second, does all the necessary game logic
+     * Updates the game state 60 frames per second, advances the simulation by a frame's worth of ticks and draws it
      * @param input the input the user entered
      */
     @Override
     protected void update(Input input) {
-        gameLevel.getMap().draw(0, 0, 0, 0, Window.getWidth(), Window.getHeight());
-
-        if (input.wasPressed(Keys.S) && !waveStarted) {
-            waveStarted = true;
+        FrameMetrics metrics = simulation.getMetrics();
+        if (input.wasPressed(Keys.F3)) {
+            metrics.setEnabled(!metrics.isEnabled());
+        }
+        if (input.wasPressed(Keys.F5)) {
+            quickSave();
+        }
+        // Loads cannot be replayed, so a game being recorded cannot quickload
+        if (input.wasPressed(Keys.F9) && !simulation.isRecording()) {
+            quickLoad();
+        }
+        long frameStart = metrics.start();
+        if (input.wasPressed(Keys.S)) {
+            simulation.startWave();
         }
 
-        gameLevel.renderDefences();
-        buyPanel.drawPanel(this);
-        // Moved this line out here to allow planes to complete its flight even if the wave ends before it finishes
-        gameLevel.moveDefences();
-        gameLevel.renderEnemies();
-        if (waveStarted && lives > 0) {
-            try {
-                doWaveLogic();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+        try {
+            simulation.advanceFrame();
+        } catch (IOException e) {
+            e.printStackTrace();
         }
 
-        // Instead of closing the game, gives the player an option to restart the game on death
-        if (lives <= 0){
-            gameOver = true;
-            gameStatus = "Oh No! You have died! Press Y to restart game.";
-            // Uncomment this next line if you want the window to close
-//            Window.close();
+        // Drawing only queues sprites, so most of the cost of drawing them shows up in the flush
+        long start = metrics.start();
+        try {
+            getMapLayer().draw();
+        } catch (IOException e) {
+            e.printStackTrace();
         }
+        start = metrics.record(FramePhase.MAP_DRAW, start);
+        simulation.getGameLevel().renderDefences(renderQueue);
+        damageNumbers.render(renderQueue);
+        start = metrics.record(FramePhase.RENDER_DEFENCES, start);
+        buyPanel.drawPanel(simulation, renderQueue);
+        start = metrics.record(FramePhase.BUY_PANEL, start);
+        simulation.getGameLevel().renderEnemies(renderQueue);
+        start = metrics.record(FramePhase.RENDER_ENEMIES, start);
 
         // Dont allow players to purchase towers after game ended
-        if (!gameOver) {
+        if (!simulation.isGameOver()) {
             checkHoldingDefence(input);
         }
 
-        statusPanel.drawPanel(this);
+        start = metrics.start();
+        statusPanel.drawPanel(simulation, renderQueue);
+        start = metrics.record(FramePhase.STATUS_PANEL, start);
+        renderQueue.flush();
+        metrics.record(FramePhase.FLUSH, start);
 
-        if (gameOver && input.wasPressed(Keys.Y)){
+        if (simulation.isGameOver() && input.wasPressed(Keys.Y)){
             try {
                 restartGame();
             } catch (IOException e) {
@@ -105,86 +152,146 @@ public class ShadowDefend extends AbstractGame {
         }
 
         if (input.wasPressed(Keys.L)) {
-            if (timescale < 5){
-                timescale++;
-            }
+            simulation.increaseTimescale();
         }
 
         if (input.wasPressed(Keys.K)) {
-            if (timescale > 1){
-                timescale--;
+            simulation.decreaseTimescale();
+        }
+
+        metrics.record(FramePhase.FRAME, frameStart);
+        metrics.endFrame(simulation.getGameLevel());
+    }
+
+    /**
+     * Saves a snapshot of the game to the quicksave file
+     */
+    private void quickSave(){
+        try (OutputStream stream = new FileOutputStream(QUICKSAVE_FILE)){
+            simulation.saveSnapshot(stream);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads the snapshot in the quicksave file into the game, dropping any tower the player is holding
+     */
+    private void quickLoad(){
+        try (InputStream stream = new FileInputStream(QUICKSAVE_FILE)){
+            simulation.loadSnapshot(stream);
+            damageNumbers.clear();
+            holdingTank = false;
+            holdingSuperTank = false;
+            holdingAirSupport = false;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Returns the map layer of the current level, switching to the layer of the new map when the simulation has moved
+     * on to a new level. Each map is only drawn into its layer once, however many times the game comes back to it.
+     * @return the map layer to draw
+     * @throws IOException when the map cannot be drawn into its layer
+     */
+    private MapLayer getMapLayer() throws IOException {
+        prefetchMapLayer();
+        LevelMap currentMap = simulation.getGameLevel().getMap();
+        if (mapLayer == null || !currentMap.getMapFile().equals(mapLayer.getMapFile())){
+            if (mapLayer != null){
+                mapLayer.release();
             }
+            mapLayer = mapLayers.get(currentMap.getMapFile());
+            if (mapLayer == null){
+                mapLayer = takePrefetchedLayer(currentMap.getMapFile());
+            }
+            if (mapLayer == null){
+                mapLayer = new MapLayer(currentMap);
+                mapLayers.put(currentMap.getMapFile(), mapLayer);
+            }
+            // Nothing from the previous level is on screen any more
+            Assets.evictUnused();
         }
+        return mapLayer;
     }
 
     /**
-     * Performs all the wave logic
-     * @throws IOException when wave file is not found
+     * Starts drawing the map of the next level into its layer in the background once the level has started reading
+     * it, so only loading the texture is left for the frame the level changes on. Maps that already have a layer are
+     * not drawn again.
      */
-    private void doWaveLogic() throws IOException{
-        gameStatus = "Wave In Progress";
-        gameLevel.spawnWave();
-        gameLevel.moveEnemies();
-        gameLevel.defenceAttack();
-        gameLevel.increaseFrame();
-        gameLevel.removeCompletedSprites(this);
-
-        // Wave has ended
-        if (gameLevel.checkWaveEnded()){
-            gameStatus = "Awaiting Start";
-            waveStarted = false;
-            gameLevel.getNextWave();
-            money += 150 + gameLevel.getLevelWave().getWaveNumber() * 100;
-            gameLevel.resetLevelProjectiles();
-
-            // Level has ended
-            if(gameLevel.getLevelWave().allWavesFinished()){
-                if(gameLevel.hasLoadedNextLevel()){
-                    gameStatus = "Winner! Press Y to restart game.";
-                    gameOver = true;
-                }
-                else{
-                    gameLevel.loadNextLevel();
-                    resetLevel();
+    private void prefetchMapLayer(){
+        Level level = simulation.getGameLevel();
+        if (nextMapLayer != null || !level.hasNextLevel()
+                || mapLayers.containsKey(level.getCatalogue().getMapFile(level.getLevelIndex() + 1))){
+            return;
+        }
+        CompletableFuture<LevelMap> nextMap = level.getPreparedNextMap();
+        if (nextMap != null){
+            nextMapLayer = nextMap.thenApplyAsync(map -> {
+                try {
+                    return new MapLayer(map);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
-            }
+            });
+        }
+    }
+
+    /**
+     * Takes the layer drawn in the background, waiting for it to finish if need be, and keeps it with the other
+     * layers whichever map it is for
+     * @param mapFile the map the layer is wanted for
+     * @return the layer, null if none was prefetched for the map or drawing it failed
+     */
+    private MapLayer takePrefetchedLayer(String mapFile){
+        if (nextMapLayer == null){
+            return null;
+        }
+        CompletableFuture<MapLayer> prefetched = nextMapLayer;
+        nextMapLayer = null;
+        try {
+            MapLayer layer = prefetched.join();
+            mapLayers.put(layer.getMapFile(), layer);
+            return layer.getMapFile().equals(mapFile) ? layer : null;
+        } catch (CompletionException e) {
+            // Drawn again on this thread, where a failure is reported
+            return null;
         }
     }
 
     /**
      * Checks if the player is holding a defence tower and draws the indicator. Does not allow towers to be stacked or
-     * placed onto the enemy path and does not draw indicator if this is the case.
+     * placed onto blocked tiles and does not draw indicator if this is the case. While a tower is held the tiles it
+     * cannot go on are shaded.
      * @param input the player input
      */
     private void checkHoldingDefence(Input input){
         // Holding a defence tower
         if (holdingTank || holdingSuperTank || holdingAirSupport){
-            boolean allowedToPlace = true;
-            gameStatus = "Placing";
+            simulation.setGameStatus("Placing");
 
             if (holdingTank || holdingSuperTank){
-                for (Defence defence : gameLevel.getLevelDefence()){
-                    if (defence.getRect().intersects(input.getMousePosition())){
-                        allowedToPlace = false;
-                    }
-                }
-                if (inputWithinWindow(input) && validLocation(input) && allowedToPlace){
+                PlacementGrid placementGrid = simulation.getGameLevel().getPlacementGrid();
+                placementOverlay.draw(placementGrid);
+                if (inputWithinWindow(input) && placementGrid.canPlace(input.getMousePosition())){
                     if (holdingTank){
-                        buyPanel.drawTankIndicator(input.getMousePosition());
+                        buyPanel.drawTankIndicator(input.getMousePosition(), renderQueue);
                     }
                     if (holdingSuperTank){
-                        buyPanel.drawSuperTankIndicator(input.getMousePosition());
+                        buyPanel.drawSuperTankIndicator(input.getMousePosition(), renderQueue);
                     }
                     if (input.wasPressed(MouseButtons.LEFT)){
                         if (holdingTank){
-                            gameLevel.placeDefence(new Tank(input.getMousePosition()), this);
+                            simulation.placeTank(input.getMousePosition());
                             holdingTank = false;
                         }
                         if (holdingSuperTank) {
-                            gameLevel.placeDefence(new SuperTank(input.getMousePosition()), this);
+                            simulation.placeSuperTank(input.getMousePosition());
                             holdingSuperTank = false;
                         }
-                        gameStatus = "Awaiting Start";
+                        simulation.setGameStatus("Awaiting Start");
                     }
                 }
             }
@@ -193,17 +300,12 @@ public class ShadowDefend extends AbstractGame {
                 // Allow the plane to be placed on the polyline as it does not make sense if we cant place bombs
                 // on top of the enemy path
                 if(inputWithinWindow(input)){
-                    buyPanel.drawAirSupportIndicator(input.getMousePosition());
+                    buyPanel.drawAirSupportIndicator(input.getMousePosition(),
+                            simulation.isNextAirSupportHorizontal(), renderQueue);
                     if (input.wasPressed(MouseButtons.LEFT)){
-                        if (AirSupport.isNextIsHorizontal()){
-                            gameLevel.placeDefence(new AirSupport(new Point(-AIR_SUPPORT_OFFSET, input.getMouseY())), this);
-                        }
-                        else{
-                            gameLevel.placeDefence(new AirSupport(new Point(input.getMouseX(), -AIR_SUPPORT_OFFSET)), this);
-                        }
-                        AirSupport.setNextIsHorizontal();
+                        simulation.placeAirSupport(input.getMousePosition());
                         holdingAirSupport = false;
-                        gameStatus = "Awaiting Start";
+                        simulation.setGameStatus("Awaiting Start");
                     }
                 }
             }
@@ -213,23 +315,23 @@ public class ShadowDefend extends AbstractGame {
                 holdingTank = false;
                 holdingAirSupport = false;
                 holdingSuperTank = false;
-                gameStatus = "Awaiting Start";
+                simulation.setGameStatus("Awaiting Start");
             }
         }
 
         // Select defences
         if (input.wasPressed(MouseButtons.LEFT)){
-            if (money >= BuyPanel.TANK_PRICE && buyPanel.getTankBound().intersects(input.getMousePosition())
+            if (simulation.getMoney() >= BuyPanel.TANK_PRICE && buyPanel.getTankBound().intersects(input.getMousePosition())
                     && !holdingSuperTank && !holdingAirSupport){
                 holdingTank = true;
             }
 
-            if (money >= BuyPanel.SUPER_TANK_PRICE && buyPanel.getSuperTankBound().intersects(input.getMousePosition())
+            if (simulation.getMoney() >= BuyPanel.SUPER_TANK_PRICE && buyPanel.getSuperTankBound().intersects(input.getMousePosition())
                     && !holdingTank && !holdingAirSupport){
                 holdingSuperTank = true;
             }
 
-            if (money >= BuyPanel.AIR_SUPPORT_PRICE && buyPanel.getAirSupportBound().intersects(input.getMousePosition())
+            if (simulation.getMoney() >= BuyPanel.AIR_SUPPORT_PRICE && buyPanel.getAirSupportBound().intersects(input.getMousePosition())
                     && !holdingSuperTank && !holdingTank){
                 holdingAirSupport = true;
             }
@@ -250,103 +352,12 @@ public class ShadowDefend extends AbstractGame {
     }
 
     /**
-     * Checks if a defence can be placed on the location of the mouse input on the map
-     * @param input the player input
-     * @return true if it can be placed on the tile
-     */
-    private boolean validLocation(Input input){
-        return !gameLevel.getMap().hasProperty((int)input.getMouseX(), (int)input.getMouseY(), "blocked");
-    }
-
-    /**
-     * Restarts the game, resets the variables
+     * Restarts the game, resets the variables. The panels are kept as they hold no game state.
      * @throws IOException when the files for the level cannot be found
      */
     private void restartGame() throws IOException {
-        gameLevel = new Level();
-        statusPanel = new StatusPanel();
-        buyPanel = new BuyPanel();
-        gameStatus = "Awaiting Start";
-        waveStarted = false;
-        gameOver = false;
-        resetLevel();
-    }
-
-    /**
-     * Resets the level to its starting state
-     */
-    private void resetLevel(){
-        money = STARTING_MONEY;
-        lives = STARTING_LIVES;
-        timescale = 1;
-        if(!AirSupport.isNextIsHorizontal()){
-            AirSupport.setNextIsHorizontal();
-        }
-    }
-
-    /* Getters and setters */
-
-    /**
-     * Returns the timescale of the game
-     * @return the timescale of the game
-     */
-    public static double getTimescale() {
-        return timescale;
-    }
-
-    /**
-     * Deducts a given amount of money
-     * @param amount the amount to deduct
-     */
-    public void deductMoney(int amount){
-        money -= amount;
-    }
-
-    /**
-     * Returns the current amount of money the player has
-     * @return the amount of money of the player
-     */
-    public int getMoney() {
-        return money;
-    }
-
-    /**
-     * Returns the current game level
-     * @return the game level
-     */
-    public Level getGameLevel() {
-        return gameLevel;
-    }
-
-    /**
-     * Returns a string representing the game status
-     * @return the game status
-     */
-    public String getGameStatus() {
-        return gameStatus;
-    }
-
-    /**
-     * Returns an integer indicating the lives the player has
-     * @return the amount of lives left
-     */
-    public int getLives() {
-        return lives;
-    }
-
-    /**
-     * Deducts the a given amount of lives from the player
-     * @param amount the amount of lives to deduct
-     */
-    public void deductLives(int amount){
-        lives -= amount;
-    }
-
-    /**
-     * Adds a given amount of money to the player
-     * @param amount the amount of money to add
-     */
-    public void addMoney(int amount){
-        money += amount;
+        simulation.restart();
+        damageNumbers.clear();
+        Assets.evictUnused();
     }
 }
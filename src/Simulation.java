@@ -0,0 +1,622 @@
+import bagel.util.Point;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+/**
+ * The headless simulation of a game of ShadowDefend. Owns the level, the wave progression and the player's money and
+ * lives, and advances them one frame at a time without needing a window, so it can be run on its own as fast as the
+ * CPU allows or driven by the windowed game.
+ * Every tick is one frame of the game at normal speed. The timescale is the number of ticks run per rendered frame, so
+ * a game played fast forward goes through exactly the same ticks as one played at normal speed.
+ */
+public class Simulation {
+    /* Constants */
+    public static final int WIDTH = 1024;
+    public static final int HEIGHT = 768;
+    private static final int[] TIMESCALES = {1, 2, 3, 4, 5, 10, 25, 50, 100, 250, 500, 1000};
+    private static final long FRAME_BUDGET = 12_000_000; // Nanoseconds of each 60 fps frame spent ticking
+    private static final int STARTING_MONEY = 500;
+    private static final int STARTING_LIVES = 25;
+    private static final int AIR_SUPPORT_OFFSET = 100;
+    private static final long HASH_SEED = 0xCBF29CE484222325L;
+    private static final long HASH_PRIME = 0x100000001B3L;
+    public static final int SNAPSHOT_MAGIC = 0x5344534E; // "SDSN"
+    public static final int SNAPSHOT_VERSION = 3;
+
+    /* Attributes */
+    private int timescaleIndex;
+    private double tickAccumulator;
+    private final LevelCatalogue catalogue;
+    private final boolean enemyArrays;
+    private final ParallelPhases parallelPhases;
+    private final long seed;
+    private final FrameMetrics metrics = new FrameMetrics();
+    private final GameRandom random;
+    private boolean nextAirSupportHorizontal;
+    private Level gameLevel;
+    private String gameStatus;
+    private int money;
+    private int lives;
+    private boolean waveStarted;
+    private boolean gameOver;
+    private long tickCount;
+    private InputRecorder recorder;
+    private HitListener hitListener;
+
+    /**
+     * Creates a new game at the start of the first level
+     * @throws IOException when the files for the level cannot be found
+     */
+    public Simulation() throws IOException {
+        this(false);
+    }
+
+    /**
+     * Creates a new game at the start of the first level
+     * @param enemyArrays whether the levels keep the state of their enemies in an EnemyStore
+     * @throws IOException when the files for the level cannot be found
+     */
+    public Simulation(boolean enemyArrays) throws IOException {
+        this(enemyArrays, false);
+    }
+
+    /**
+     * Creates a new game at the start of the first level
+     * @param enemyArrays whether the levels keep the state of their enemies in an EnemyStore
+     * @param parallel whether to split enemy movement, projectile homing and tower targeting over the common
+     *                 fork-join pool. Ticks give exactly the same results either way.
+     * @throws IOException when the files for the level cannot be found
+     */
+    public Simulation(boolean enemyArrays, boolean parallel) throws IOException {
+        this(LevelCatalogue.load(LevelCatalogue.MANIFEST), enemyArrays, parallel, new Random().nextLong());
+    }
+
+    /**
+     * Creates a new game at the start of the first level
+     * @param catalogue the levels of the game, in the order they are played
+     * @param enemyArrays whether the levels keep the state of their enemies in an EnemyStore
+     * @param parallel whether to split enemy movement, projectile homing and tower targeting over the common
+     *                 fork-join pool
+     * @param seed the seed of the random numbers of the game, so the same seed and inputs play the same game
+     * @throws IOException when the files for the level cannot be found
+     */
+    public Simulation(LevelCatalogue catalogue, boolean enemyArrays, boolean parallel, long seed) throws IOException {
+        this.catalogue = catalogue;
+        this.enemyArrays = enemyArrays;
+        this.seed = seed;
+        random = new GameRandom(seed);
+        parallelPhases = parallel ? new ParallelPhases() : null;
+        restart();
+    }
+
+    /**
+     * Restarts the game from the first level. The files of the level are already parsed in the level cache, so this
+     * does not read them again.
+     * @throws IOException when the files for the level cannot be found
+     */
+    public void restart() throws IOException {
+        record(InputAction.RESTART, null);
+        if (gameLevel != null){
+            gameLevel.release();
+        }
+        gameLevel = new Level(catalogue, 0, enemyArrays);
+        random.setState(seed);
+        gameLevel.setParallelPhases(parallelPhases);
+        gameLevel.setHitListener(hitListener);
+        gameStatus = "Awaiting Start";
+        waveStarted = false;
+        gameOver = false;
+        resetLevel();
+    }
+
+    /**
+     * Advances the game by a given number of frames
+     * @param frames the number of frames to advance
+     * @throws IOException when the files for the next level cannot be found
+     */
+    public void run(int frames) throws IOException {
+        for (int i = 0; i < frames; i++){
+            tick();
+        }
+    }
+
+    /**
+     * Advances the game by one rendered frame, running as many ticks as the timescale asks for. Ticks that do not fit
+     * in the frame budget are carried over to the next frame, up to a frame's worth, so a slow machine runs the game
+     * slower rather than falling further and further behind.
+     * @return the number of ticks run
+     * @throws IOException when the files for the next level cannot be found
+     */
+    public int advanceFrame() throws IOException {
+        int timescale = getTimescale();
+        tickAccumulator += timescale;
+        long deadline = System.nanoTime() + FRAME_BUDGET;
+        int ticks = 0;
+        while (tickAccumulator >= 1){
+            tick();
+            tickAccumulator--;
+            ticks++;
+            if (System.nanoTime() > deadline){
+                break;
+            }
+        }
+        tickAccumulator = Math.min(tickAccumulator, timescale);
+        return ticks;
+    }
+
+    /**
+     * Advances the game by one tick, a frame at normal speed
+     * @throws IOException when the files for the next level cannot be found
+     */
+    public void tick() throws IOException {
+        long tickStart = metrics.start();
+        tickCount++;
+        // Moved this line out here to allow planes to complete its flight even if the wave ends before it finishes
+        gameLevel.moveDefences();
+        metrics.record(FramePhase.MOVE_DEFENCES, tickStart);
+        if (waveStarted && lives > 0) {
+            doWaveLogic();
+        }
+
+        // Instead of ending the game, gives the player an option to restart the game on death
+        if (lives <= 0){
+            gameOver = true;
+            gameStatus = "Oh No! You have died! Press Y to restart game.";
+        }
+        metrics.record(FramePhase.TICK, tickStart);
+    }
+
+    /**
+     * Performs all the wave logic
+     * @throws IOException when wave file is not found
+     */
+    private void doWaveLogic() throws IOException{
+        gameStatus = "Wave In Progress";
+        long start = metrics.start();
+        gameLevel.spawnWave();
+        start = metrics.record(FramePhase.SPAWN_WAVE, start);
+        gameLevel.moveEnemies();
+        start = metrics.record(FramePhase.MOVE_ENEMIES, start);
+        gameLevel.defenceAttack();
+        start = metrics.record(FramePhase.DEFENCE_ATTACK, start);
+        gameLevel.increaseFrame();
+        gameLevel.removeCompletedSprites(this);
+        metrics.record(FramePhase.REMOVE_COMPLETED, start);
+
+        // Wave has ended
+        if (gameLevel.checkWaveEnded()){
+            gameStatus = "Awaiting Start";
+            waveStarted = false;
+            gameLevel.getNextWave();
+            money += 150 + gameLevel.getLevelWave().getWaveNumber() * 100;
+            gameLevel.resetLevelProjectiles();
+
+            // Level has ended
+            if(gameLevel.getLevelWave().allWavesFinished()){
+                if(!gameLevel.hasNextLevel()){
+                    gameStatus = "Winner! Press Y to restart game.";
+                    gameOver = true;
+                }
+                else{
+                    gameLevel.loadNextLevel();
+                    resetLevel();
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts the next wave if one is not already in progress
+     */
+    public void startWave(){
+        if (!waveStarted){
+            record(InputAction.START_WAVE, null);
+            waveStarted = true;
+        }
+    }
+
+    /**
+     * Places a defence into the level if the player can afford it. Placements made this way are not recorded; the
+     * player's placements go through placeTank, placeSuperTank and placeAirSupport.
+     * @param defence the defence to place
+     */
+    public void placeDefence(Defence defence){
+        gameLevel.placeDefence(defence, this);
+    }
+
+    /**
+     * Places a tank at a point if the player can afford it
+     * @param point the centre of the tank
+     */
+    public void placeTank(Point point){
+        record(InputAction.PLACE_TANK, point);
+        placeDefence(new Defence(point, Archetypes.standard().getDefence(Archetypes.TANK)));
+    }
+
+    /**
+     * Places a super tank at a point if the player can afford it
+     * @param point the centre of the super tank
+     */
+    public void placeSuperTank(Point point){
+        record(InputAction.PLACE_SUPER_TANK, point);
+        placeDefence(new Defence(point, Archetypes.standard().getDefence(Archetypes.SUPER_TANK)));
+    }
+
+    /**
+     * Sends an air support across the map through a point, flying in from the left if the next plane flies
+     * horizontally or from the top if it flies vertically
+     * @param point the point the plane flies through
+     */
+    public void placeAirSupport(Point point){
+        record(InputAction.PLACE_AIR_SUPPORT, point);
+        DefenceArchetype archetype = Archetypes.standard().getDefence(Archetypes.AIR_SUPPORT);
+        if (nextAirSupportHorizontal){
+            placeDefence(new AirSupport(new Point(-AIR_SUPPORT_OFFSET, point.y), archetype, true, random));
+        }
+        else{
+            placeDefence(new AirSupport(new Point(point.x, -AIR_SUPPORT_OFFSET), archetype, false, random));
+        }
+        nextAirSupportHorizontal = !nextAirSupportHorizontal;
+    }
+
+    /**
+     * Increases the timescale to the next step, up to the maximum timescale
+     */
+    public void increaseTimescale(){
+        if (timescaleIndex < TIMESCALES.length - 1){
+            record(InputAction.INCREASE_TIMESCALE, null);
+            timescaleIndex++;
+        }
+    }
+
+    /**
+     * Decreases the timescale to the previous step, down to the default timescale
+     */
+    public void decreaseTimescale(){
+        if (timescaleIndex > 0){
+            record(InputAction.DECREASE_TIMESCALE, null);
+            timescaleIndex--;
+        }
+    }
+
+    /**
+     * Starts recording the player's actions, so the game can be replayed exactly from its seed
+     * @param stream where to write the recording
+     * @throws IOException when the recording cannot be started
+     */
+    public void startRecording(OutputStream stream) throws IOException {
+        recorder = new InputRecorder(stream, seed, catalogue);
+    }
+
+    /**
+     * Stops recording, ending the recording with the current tick and state hash
+     * @throws IOException when the recording cannot be finished
+     */
+    public void stopRecording() throws IOException {
+        if (recorder != null){
+            recorder.finish(tickCount, stateHash());
+            recorder = null;
+        }
+    }
+
+    /**
+     * Saves a snapshot of the game: the player's money, lives and timescale, the random numbers, and the level with
+     * every enemy, defence and projectile in it. The snapshot names the files of the game but not their contents, so
+     * it is a few dozen bytes per entity.
+     * @param stream where to write the snapshot
+     * @throws IOException when the snapshot cannot be written
+     */
+    public void saveSnapshot(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeByte(SNAPSHOT_VERSION);
+        catalogue.write(out);
+
+        out.writeLong(tickCount);
+        out.writeInt(money);
+        out.writeInt(lives);
+        out.writeByte(timescaleIndex);
+        out.writeBoolean(waveStarted);
+        out.writeBoolean(gameOver);
+        out.writeUTF(gameStatus);
+        out.writeBoolean(nextAirSupportHorizontal);
+        out.writeLong(random.getState());
+        out.writeInt(gameLevel.getLevelIndex());
+        gameLevel.writeState(out);
+        out.flush();
+    }
+
+    /**
+     * Loads a snapshot saved by saveSnapshot into this game, which must have been created with the same files. The
+     * game carries on exactly as the saved one would have. Snapshots from older versions of the game still load.
+     * If the snapshot turns out to be broken part way through, the game is left half loaded and should be restarted.
+     * @param stream where to read the snapshot from
+     * @throws IOException when the snapshot is not valid, is from a newer version or is of other files
+     * @throws IllegalStateException when the game is being recorded, as loads cannot be replayed
+     */
+    public void loadSnapshot(InputStream stream) throws IOException {
+        if (recorder != null){
+            throw new IllegalStateException("A game being recorded cannot load a snapshot");
+        }
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != SNAPSHOT_MAGIC){
+            throw new IOException("Not a ShadowDefend snapshot");
+        }
+        int version = in.readUnsignedByte();
+        if (version < 1 || version > SNAPSHOT_VERSION){
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        LevelCatalogue savedCatalogue = version == 1 ? LevelCatalogue.readFirstVersion(in) : LevelCatalogue.read(in);
+        if (!savedCatalogue.equals(catalogue)){
+            throw new IOException("Snapshot is of levels " + savedCatalogue + ", not " + catalogue);
+        }
+
+        long savedTickCount = in.readLong();
+        int savedMoney = in.readInt();
+        int savedLives = in.readInt();
+        int savedTimescaleIndex = in.readUnsignedByte();
+        if (savedTimescaleIndex >= TIMESCALES.length){
+            throw new IOException("Unknown timescale " + savedTimescaleIndex);
+        }
+        boolean savedWaveStarted = in.readBoolean();
+        boolean savedGameOver = in.readBoolean();
+        String savedGameStatus = in.readUTF();
+        boolean savedNextAirSupportHorizontal = in.readBoolean();
+        long savedRandomState = in.readLong();
+
+        // Get onto the level the snapshot was taken on before reading its state. The first version only had two
+        // levels and saved whether the game was on the second.
+        int levelIndex = version == 1 ? (in.readBoolean() ? 1 : 0) : in.readInt();
+        if (levelIndex < 0 || levelIndex >= catalogue.size()){
+            throw new IOException("Snapshot is of level " + levelIndex + " of a game of " + catalogue.size());
+        }
+        if (levelIndex != gameLevel.getLevelIndex()){
+            gameLevel.release();
+            gameLevel = new Level(catalogue, levelIndex, enemyArrays);
+            gameLevel.setParallelPhases(parallelPhases);
+            gameLevel.setHitListener(hitListener);
+        }
+        gameLevel.readState(in, version, random);
+
+        random.setState(savedRandomState);
+        tickCount = savedTickCount;
+        money = savedMoney;
+        lives = savedLives;
+        timescaleIndex = savedTimescaleIndex;
+        tickAccumulator = 0;
+        waveStarted = savedWaveStarted;
+        gameOver = savedGameOver;
+        gameStatus = savedGameStatus;
+        nextAirSupportHorizontal = savedNextAirSupportHorizontal;
+    }
+
+    /**
+     * Records a player action at the current tick if the game is being recorded
+     * @param action the action
+     * @param point the point of a placement, null for other actions
+     */
+    private void record(InputAction action, Point point){
+        if (recorder != null){
+            try {
+                recorder.record(action, tickCount, point);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not record " + action, e);
+            }
+        }
+    }
+
+    /**
+     * Hashes the state of the game: the player's money and lives, the wave, and the position and health of every
+     * enemy, defence and projectile. Two games that hash the same after the same ticks have played out the same.
+     * @return the hash
+     */
+    public long stateHash(){
+        long hash = HASH_SEED;
+        hash = mix(hash, tickCount);
+        hash = mix(hash, money);
+        hash = mix(hash, lives);
+        hash = mix(hash, (waveStarted ? 1 : 0) | (gameOver ? 2 : 0));
+        hash = mix(hash, gameLevel.getLevelWave().getWaveNumber());
+        for (Enemy enemy : gameLevel.getLevelEnemy()){
+            hash = mix(hash, enemy.getArchetype().getName().hashCode());
+            hash = mix(hash, enemy.getCentre());
+            hash = mix(hash, enemy.getHealth());
+        }
+        for (Defence defence : gameLevel.getLevelDefence()){
+            hash = mix(hash, defence.getArchetype().getName().hashCode());
+            hash = mix(hash, defence.getCentre());
+            hash = mix(hash, defence.getLastAttack());
+        }
+        for (Projectile projectile : gameLevel.getLevelProjectiles()){
+            hash = mix(hash, projectile.getCentre());
+            hash = mix(hash, projectile.getDamage());
+        }
+        return hash;
+    }
+
+    /**
+     * Mixes a value into a hash, FNV style
+     * @param hash the hash so far
+     * @param value the value
+     * @return the new hash
+     */
+    private static long mix(long hash, long value){
+        return (hash ^ value) * HASH_PRIME;
+    }
+
+    /**
+     * Mixes the exact coordinates of a point into a hash
+     * @param hash the hash so far
+     * @param point the point
+     * @return the new hash
+     */
+    private static long mix(long hash, Point point){
+        return mix(mix(hash, Double.doubleToLongBits(point.x)), Double.doubleToLongBits(point.y));
+    }
+
+    /**
+     * Resets the level to its starting state
+     */
+    private void resetLevel(){
+        money = STARTING_MONEY;
+        lives = STARTING_LIVES;
+        timescaleIndex = 0;
+        tickAccumulator = 0;
+        nextAirSupportHorizontal = true;
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the timescale of the game
+     * @return the number of ticks run per rendered frame
+     */
+    public int getTimescale() {
+        return TIMESCALES[timescaleIndex];
+    }
+
+    /**
+     * Returns the frame timing metrics of the game, which are disabled until turned on
+     * @return the metrics
+     */
+    public FrameMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns a boolean for whether the next air support placed flies horizontally
+     * @return true if the next plane flies horizontally
+     */
+    public boolean isNextAirSupportHorizontal() {
+        return nextAirSupportHorizontal;
+    }
+
+    /**
+     * Returns the levels of the game
+     * @return the catalogue
+     */
+    public LevelCatalogue getCatalogue() {
+        return catalogue;
+    }
+
+    /**
+     * Returns the number of ticks the game has run since it was created
+     * @return the number of ticks
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Sets who is told about projectiles hitting their targets, in this level and every level after it
+     * @param hitListener the listener, null for none
+     */
+    public void setHitListener(HitListener hitListener) {
+        this.hitListener = hitListener;
+        gameLevel.setHitListener(hitListener);
+    }
+
+    /**
+     * Returns a boolean value indicating whether the player's actions are being recorded
+     * @return true if the game is being recorded
+     */
+    public boolean isRecording() {
+        return recorder != null;
+    }
+
+    /**
+     * Returns the seed of the random numbers of the game
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Deducts a given amount of money
+     * @param amount the amount to deduct
+     */
+    public void deductMoney(int amount){
+        money -= amount;
+    }
+
+    /**
+     * Adds a given amount of money to the player
+     * @param amount the amount of money to add
+     */
+    public void addMoney(int amount){
+        money += amount;
+    }
+
+    /**
+     * Returns the current amount of money the player has
+     * @return the amount of money of the player
+     */
+    public int getMoney() {
+        return money;
+    }
+
+    /**
+     * Returns an integer indicating the lives the player has
+     * @return the amount of lives left
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Deducts the a given amount of lives from the player
+     * @param amount the amount of lives to deduct
+     */
+    public void deductLives(int amount){
+        lives -= amount;
+    }
+
+    /**
+     * Returns the current game level
+     * @return the game level
+     */
+    public Level getGameLevel() {
+        return gameLevel;
+    }
+
+    /**
+     * Returns a string representing the game status
+     * @return the game status
+     */
+    public String getGameStatus() {
+        return gameStatus;
+    }
+
+    /**
+     * Sets the game status shown to the player
+     * @param gameStatus the game status
+     */
+    public void setGameStatus(String gameStatus) {
+        this.gameStatus = gameStatus;
+    }
+
+    /**
+     * Returns a boolean value indicating whether a wave is currently in progress
+     * @return true if a wave is in progress
+     */
+    public boolean isWaveStarted() {
+        return waveStarted;
+    }
+
+    /**
+     * Returns a boolean value indicating whether the game has been won or lost
+     * @return true if the game is over
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+}
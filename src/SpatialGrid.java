@@ -0,0 +1,114 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A uniform grid over the map bucketing enemies by the cell their centre is in, so area of effect queries only look
+ * at enemies in the cells a circle overlaps. Enemies off the edge of the map are kept in the nearest edge cell.
+ * Rebuilding and querying do not allocate once the grid has grown to the size of the largest wave.
+ */
+public class SpatialGrid {
+    /* Constants */
+    private static final double CELL_SIZE = 64;
+
+    /* Attributes */
+    private final int columns;
+    private final int rows;
+    private final int[] cellStart;
+    private int[] enemyCell = new int[0];
+    private Enemy[] enemies = new Enemy[0];
+    private double[] enemyX = new double[0];
+    private double[] enemyY = new double[0];
+
+    /**
+     * Creates an empty grid covering the map
+     * @param width the width of the map in pixels
+     * @param height the height of the map in pixels
+     */
+    public SpatialGrid(double width, double height){
+        columns = Math.max((int) Math.ceil(width / CELL_SIZE), 1);
+        rows = Math.max((int) Math.ceil(height / CELL_SIZE), 1);
+        cellStart = new int[columns * rows + 1];
+    }
+
+    /**
+     * Buckets the enemies by cell with a counting sort
+     * @param levelEnemy the enemies of the level
+     */
+    public void rebuild(List<Enemy> levelEnemy){
+        int size = levelEnemy.size();
+        if (enemies.length < size){
+            enemyCell = new int[size];
+            enemies = new Enemy[size];
+            enemyX = new double[size];
+            enemyY = new double[size];
+        }
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < size; i++){
+            Enemy enemy = levelEnemy.get(i);
+            int cell = row(enemy.getCentreY()) * columns + column(enemy.getCentreX());
+            enemyCell[i] = cell;
+            cellStart[cell + 1]++;
+        }
+        for (int cell = 0; cell < columns * rows; cell++){
+            cellStart[cell + 1] += cellStart[cell];
+        }
+
+        // Walk backwards filling each cell from its end, which leaves cellStart pointing at the start of each cell
+        for (int i = size - 1; i >= 0; i--){
+            Enemy enemy = levelEnemy.get(i);
+            int slot = --cellStart[enemyCell[i] + 1];
+            enemies[slot] = enemy;
+            enemyX[slot] = enemy.getCentreX();
+            enemyY[slot] = enemy.getCentreY();
+        }
+        // Each cell ended up one behind, so shift them back into place
+        System.arraycopy(cellStart, 1, cellStart, 0, columns * rows);
+        cellStart[columns * rows] = size;
+        Arrays.fill(enemies, size, enemies.length, null);
+    }
+
+    /**
+     * Applies an effect to every enemy whose centre is within a radius of a point
+     * @param x the x coordinate of the centre of the area
+     * @param y the y coordinate of the centre of the area
+     * @param radius the radius of the area
+     * @param effect the effect to apply
+     */
+    public void forEachWithin(double x, double y, double radius, AreaEffect effect){
+        int firstColumn = column(x - radius);
+        int lastColumn = column(x + radius);
+        int firstRow = row(y - radius);
+        int lastRow = row(y + radius);
+        double radiusSquared = radius * radius;
+        for (int row = firstRow; row <= lastRow; row++){
+            for (int column = firstColumn; column <= lastColumn; column++){
+                int cell = row * columns + column;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++){
+                    double dx = enemyX[i] - x;
+                    double dy = enemyY[i] - y;
+                    if (dx * dx + dy * dy <= radiusSquared){
+                        effect.apply(enemies[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the column containing an x coordinate, clamped onto the grid
+     * @param x the x coordinate
+     * @return the column
+     */
+    private int column(double x){
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor(x / CELL_SIZE)));
+    }
+
+    /**
+     * Returns the row containing a y coordinate, clamped onto the grid
+     * @param y the y coordinate
+     * @return the row
+     */
+    private int row(double y){
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / CELL_SIZE)));
+    }
+}
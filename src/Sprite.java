@@ -1,4 +1,3 @@
-import bagel.DrawOptions;
 import bagel.Image;
 import bagel.util.Point;
 import bagel.util.Rectangle;
@@ -7,11 +6,14 @@ import bagel.util.Vector2;
 /**
  * A Sprite (game entity)
  * Implementation of everything from project 1 sample solution
+ * The image is only acquired from the shared Assets registry the first time the sprite is rendered, so that sprites
+ * can be simulated without a window
  */
 public abstract class Sprite {
     /* Attributes */
-    private final Image image;
+    private final String imageSource;
     private final Rectangle rect;
+    private Image image;
     private double angle;
 
     /**
@@ -20,8 +22,8 @@ public abstract class Sprite {
      * @param imageSource the path to the image of the desired sprite
      */
     public Sprite(Point point, String imageSource){
-        image = new Image(imageSource);
-        rect = image.getBoundingBoxAt(point);
+        this.imageSource = imageSource;
+        rect = ImageBounds.of(imageSource).boundingBoxAt(point);
         angle = 0;
     }
 
@@ -34,14 +36,43 @@ public abstract class Sprite {
     }
 
     /**
-     * Renders the sprite at its location
+     * Moves the centre of the sprite to a point, used when a pooled sprite is reused
+     * @param point the new centre of the sprite
      */
-    public void render(){
-        image.draw(getCentre().x, getCentre().y, new DrawOptions().setRotation(angle));
+    public void setCentre(Point point){
+        rect.moveTo(new Point(point.x - (rect.right() - rect.left()) / 2, point.y - (rect.bottom() - rect.top()) / 2));
+    }
+
+    /**
+     * Adds the sprite at its location to the frame being drawn
+     * @param queue the render queue of the frame
+     */
+    public void render(RenderQueue queue){
+        if (image == null){
+            image = Assets.acquireImage(imageSource);
+        }
+        Point centre = getCentre();
+        queue.draw(getLayer(), image, centre.x, centre.y, getAngle());
+    }
+
+    /**
+     * Gives back the assets held by the sprite once it has been removed from the game
+     */
+    public void release(){
+        if (image != null){
+            Assets.releaseImage(imageSource);
+            image = null;
+        }
     }
 
     /* Getters and setters */
 
+    /**
+     * Returns the layer of the render queue the sprite is drawn in
+     * @return the layer of the sprite
+     */
+    public abstract int getLayer();
+
     /**
      * Returns a rectangle indicating the bounding box of the sprite
      * @return the bounding box of the sprite
@@ -58,6 +89,22 @@ public abstract class Sprite {
         return getRect().centre();
     }
 
+    /**
+     * Returns the path to the image of the sprite
+     * @return the image source
+     */
+    public String getImageSource() {
+        return imageSource;
+    }
+
+    /**
+     * Returns the angle that the sprite faces
+     * @return the angle of the sprite
+     */
+    public double getAngle() {
+        return angle;
+    }
+
     /**
      * Sets the angle that the sprite faces
      * @param angle the angle of the sprite
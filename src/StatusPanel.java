@@ -3,6 +3,9 @@ import bagel.Font;
 import bagel.Window;
 import bagel.util.Colour;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * The status panel
  */
@@ -13,34 +16,86 @@ public class StatusPanel extends Panel {
     private static final int TIMESCALE_X = 200;
     private static final int Y_POS = Window.getHeight() - 8;
     private static final int X_OFFSET = 100;
+    private static final String FONT_FILE = "res/fonts/DejaVuSans-Bold.ttf";
+    private static final int OVERLAY_FONT_SIZE = 12;
+    private static final int OVERLAY_LINE_HEIGHT = 15;
+    private static final int OVERLAY_MARGIN = 6;
+    private static final double NANOS_PER_MICRO = 1e3;
+    private static final double BYTES_PER_MEGABYTE = 1 << 20;
 
     /* Attributes */
     private final Font font;
+    private final Font overlayFont;
+    private final DrawOptions timescaleColour = new DrawOptions().setBlendColour(Colour.GREEN);
+    private final CachedText waveText = new CachedText("Wave: ");
+    private final CachedText timescaleText = new CachedText("Timescale: ");
+    private final CachedText statusText = new CachedText("Status: ");
+    private final CachedText livesText = new CachedText("Lives: ");
+    private final List<String> overlayLines = new ArrayList<>();
+    private int overlayWindow = -1;
 
     /**
      * Creates a new status panel
      */
     public StatusPanel(){
         super("res/images/statuspanel.png");
-        font = new Font("res/fonts/DejaVuSans-Bold.ttf", FONT_SIZE);
+        font = Assets.acquireFont(FONT_FILE, FONT_SIZE);
+        overlayFont = Assets.acquireFont(FONT_FILE, OVERLAY_FONT_SIZE);
     }
 
     /**
-     * Draws the status panel
+     * Draws the status panel. The text of each field is only built again when its value changes.
+     * @param gameInstance the game to show the status of
+     * @param queue the render queue of the frame
      */
     @Override
-    public void drawPanel(ShadowDefend gameInstance){
-        getBackground().draw(Window.getWidth()/2, Window.getHeight() - getBackground().getHeight()/2);
-        font.drawString("Wave: " + gameInstance.getGameLevel().getLevelWave().getWaveNumber(), WAVE_X, Y_POS);
-        if(ShadowDefend.getTimescale() > 1){
-            DrawOptions green = new DrawOptions();
-            font.drawString("Timescale: " + ShadowDefend.getTimescale(), TIMESCALE_X, Y_POS, green.setBlendColour(Colour.GREEN) );
+    public void drawPanel(Simulation gameInstance, RenderQueue queue){
+        int layer = RenderQueue.STATUS_PANEL;
+        queue.draw(layer, getBackground(), Window.getWidth()/2, Window.getHeight() - getBackground().getHeight()/2);
+        queue.drawString(layer, font, waveText.of(gameInstance.getGameLevel().getLevelWave().getWaveNumber()), WAVE_X,
+                Y_POS);
+        if(gameInstance.getTimescale() > 1){
+            queue.drawString(layer, font, timescaleText.of(gameInstance.getTimescale()), TIMESCALE_X, Y_POS,
+                    timescaleColour);
         }
         else{
-            font.drawString("Timescale: " + ShadowDefend.getTimescale(), TIMESCALE_X, Y_POS);
+            queue.drawString(layer, font, timescaleText.of(gameInstance.getTimescale()), TIMESCALE_X, Y_POS);
+        }
+        queue.drawString(layer, font, statusText.of(gameInstance.getGameStatus()), Window.getWidth() / 2 - X_OFFSET,
+                Y_POS);
+        queue.drawString(layer, font, livesText.of(gameInstance.getLives()), Window.getWidth() - X_OFFSET, Y_POS);
+        if (gameInstance.getMetrics().isEnabled()){
+            drawOverlay(gameInstance.getMetrics(), queue);
+        }
+    }
+
+    /**
+     * Draws the frame timing overlay above the status panel, from the bottom up. The lines only change when the
+     * metrics close a window, so they are built once per window rather than every frame.
+     * @param metrics the frame timing metrics
+     * @param queue the render queue of the frame
+     */
+    private void drawOverlay(FrameMetrics metrics, RenderQueue queue){
+        if (overlayWindow != metrics.getWindows()){
+            overlayWindow = metrics.getWindows();
+            overlayLines.clear();
+            overlayLines.add(String.format("%.0f fps  %d enemies  %d defences  %d projectiles  %.1f MB/s  "
+                    + "%d draws  %d binds", metrics.getFrameRate(), metrics.getEnemies(), metrics.getDefences(),
+                    metrics.getProjectiles(), metrics.getAllocationRate() / BYTES_PER_MEGABYTE, queue.getDrawCalls(),
+                    queue.getStateChanges()));
+            for (FramePhase phase : FramePhase.values()){
+                if (metrics.getCount(phase) > 0){
+                    overlayLines.add(String.format("%s  p50 %.0f  p99 %.0f  max %.0f us", phase.getName(),
+                            metrics.getP50(phase) / NANOS_PER_MICRO, metrics.getP99(phase) / NANOS_PER_MICRO,
+                            metrics.getMax(phase) / NANOS_PER_MICRO));
+                }
+            }
+        }
+        double y = Window.getHeight() - getBackground().getHeight() - OVERLAY_MARGIN;
+        for (int i = overlayLines.size() - 1; i >= 0; i--){
+            queue.drawString(RenderQueue.STATUS_PANEL, overlayFont, overlayLines.get(i), WAVE_X, y);
+            y -= OVERLAY_LINE_HEIGHT;
         }
-        font.drawString("Status: " + gameInstance.getGameStatus(), Window.getWidth() / 2 - X_OFFSET, Y_POS);
-        font.drawString("Lives: " + gameInstance.getLives(), Window.getWidth() - X_OFFSET, Y_POS);
     }
 
 }
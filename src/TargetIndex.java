@@ -0,0 +1,132 @@
+import bagel.util.Point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The enemies of a level sorted by how far along the path they are, rebuilt once per frame so that every tower can
+ * look up the enemies inside its precomputed path intervals instead of checking every enemy
+ */
+public class TargetIndex {
+    /* Constants */
+    // Children spawn up to 20 pixels off the path and their own children another 20 on top of that
+    public static final double PATH_TOLERANCE = 3 * Enemy.CHILDREN_OFFSET + 4;
+    private static final double PROGRESS_SCALE = 1024;
+    private static final int INDEX_BITS = 24;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    /* Attributes */
+    private final List<Enemy> offPath = new ArrayList<>();
+    private final List<Enemy> unsorted = new ArrayList<>();
+    private long[] progress = new long[0];
+    private Enemy[] sorted = new Enemy[0];
+    private int size;
+
+    /**
+     * Sorts the enemies of the level by how far along the path they are. Enemies that spawned further than
+     * PATH_TOLERANCE off the path are kept aside and always checked directly.
+     * @param enemies the enemies of the level
+     */
+    public void update(List<Enemy> enemies){
+        if (progress.length < enemies.size()){
+            progress = new long[enemies.size()];
+            sorted = new Enemy[enemies.size()];
+        }
+        unsorted.clear();
+        offPath.clear();
+        size = 0;
+        for (Enemy enemy : enemies){
+            if (enemy.getCompleted()){
+                continue;
+            }
+            if (enemy.getOffsetLength() > PATH_TOLERANCE){
+                offPath.add(enemy);
+                continue;
+            }
+            // Pack the progress and the position in the unsorted list into one key so a primitive sort can be used
+            long key = (long) (enemy.getDistance() * PROGRESS_SCALE);
+            progress[size++] = key << INDEX_BITS | unsorted.size();
+            unsorted.add(enemy);
+        }
+        Arrays.sort(progress, 0, size);
+        for (int i = 0; i < size; i++){
+            sorted[i] = unsorted.get((int) (progress[i] & INDEX_MASK));
+            progress[i] >>>= INDEX_BITS;
+        }
+        Arrays.fill(sorted, size, sorted.length, null);
+    }
+
+    /**
+     * Finds the un-targeted enemy furthest along the path that is within range of a tower
+     * @param centre the centre of the tower
+     * @param radius the range of the tower
+     * @param intervals the parts of the path within radius + PATH_TOLERANCE of the tower, from
+     *                  PathIndex.rangeIntervals
+     * @return the enemy to target, null if there is none
+     */
+    public Enemy furthestUntargeted(Point centre, double radius, double[] intervals){
+        Enemy best = null;
+        long bestProgress = -1;
+
+        // Intervals are sorted, so the first hit walking backwards from the end of the path is the furthest along
+        for (int i = intervals.length - 2; i >= 0 && best == null; i -= 2){
+            int first = lowerBound((long) Math.floor(intervals[i] * PROGRESS_SCALE));
+            for (int j = lowerBound((long) Math.ceil(intervals[i + 1] * PROGRESS_SCALE) + 1) - 1; j >= first; j--){
+                if (isTargetable(sorted[j], centre, radius)){
+                    best = sorted[j];
+                    bestProgress = progress[j];
+                    break;
+                }
+            }
+        }
+
+        for (Enemy enemy : offPath){
+            if (isTargetable(enemy, centre, radius)){
+                long enemyProgress = (long) (enemy.getDistance() * PROGRESS_SCALE);
+                if (enemyProgress > bestProgress){
+                    best = enemy;
+                    bestProgress = enemyProgress;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Checks if an enemy can be picked as a new target by a tower
+     * @param enemy the enemy
+     * @param centre the centre of the tower
+     * @param radius the range of the tower
+     * @return true if the enemy is un-targeted and within range
+     */
+    private static boolean isTargetable(Enemy enemy, Point centre, double radius){
+        if (enemy.isTargeted()){
+            return false;
+        }
+        Point enemyPos = enemy.getCentre();
+        double dx = enemyPos.x - centre.x;
+        double dy = enemyPos.y - centre.y;
+        return dx * dx + dy * dy <= radius * radius;
+    }
+
+    /**
+     * Returns the index of the first sorted enemy at least the given distance along the path
+     * @param key the scaled distance along the path
+     * @return the index of the enemy, size if there is none
+     */
+    private int lowerBound(long key){
+        int low = 0;
+        int high = size;
+        while (low < high){
+            int mid = (low + high) >>> 1;
+            if (progress[mid] < key){
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -1,92 +1,136 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * The wave of a level
+ * The wave of a level. Takes the compiled events of one wave at a time from its source and walks them with a cursor,
+ * so spawning never has to parse or compare strings.
  */
-public class Wave {
+public class Wave implements Closeable {
+    /* Constants */
+    private static final int DELAY_SPAWNS = -1;
+
     /* Attributes */
-    private final List<String> waves = new ArrayList<>();
-    private final List<String[]> waveInProgress = new ArrayList<>();
+    private final WaveSource source;
+    private final List<WaveEvent> waveInProgress = new ArrayList<>();
+    private int cursor;
+    private int wavesRead;
     private int waveNumber;
     private int numberToSpawn;
     private int actionDelay;
-    private String action;
-    private String enemyType;
+    private WaveAction action;
+    private EnemyArchetype enemyType;
     private boolean currentWaveFinished;
 
     /**
-     * Creates a new wave by reading a text file of wave instructions
+     * Creates a new wave that streams a text file of wave instructions
      * @param filePath filepath of the wave
      * @throws IOException when the wave file is not found
+     * @throws WaveFormatException when a line of the wave file is not valid
      */
     public Wave(String filePath) throws IOException {
-        FileReader input = new FileReader(filePath);
-        BufferedReader waveRead = new BufferedReader(input);
-        String line;
-        while ((line = waveRead.readLine()) != null){
-            waves.add(line);
-        }
+        this(new WaveStream(filePath));
+    }
+
+    /**
+     * Creates a new wave that plays the events of a source
+     * @param source the source of wave events
+     * @throws IOException when the first wave cannot be read
+     */
+    public Wave(WaveSource source) throws IOException {
+        this.source = source;
         currentWaveFinished = false;
         // Parse the first wave
         parseWave();
     }
 
-
     /**
-     * Parse the actions in the wave file with matching wave numbers and processes the first action
+     * Reads the next wave from the source and processes its first action
+     * @throws IOException when the next wave cannot be read
      */
-    public void parseWave(){
-        if (!waves.isEmpty()){
-            String[] currentWave = waves.get(0).split(",");
-            waveInProgress.add(currentWave);
-            waves.remove(0);
-
-            boolean same = true;
-            while (same){
-                if(!waves.isEmpty()){
-                    String[] nextWave = waves.get(0).split(",");
-                    if (currentWave[0].equals(nextWave[0])){
-                        waveInProgress.add(nextWave);
-                        waves.remove(0);
-                    }
-                    else{
-                        same = false;
-                    }
-                }
-                else{
-                    same = false;
-                }
-            }
+    public void parseWave() throws IOException {
+        if (source.hasNextWave()){
+            source.nextWave(waveInProgress);
+            cursor = 0;
+            wavesRead++;
         }
         // Process the first wave event
         processWave();
     }
 
+    /**
+     * Writes where the wave is up to: the number of waves read from the source, the cursor into the wave in progress
+     * and the action being played
+     * @param out where to write the state
+     * @throws IOException when the state cannot be written
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(wavesRead);
+        out.writeInt(cursor);
+        out.writeInt(waveNumber);
+        out.writeInt(numberToSpawn);
+        out.writeInt(actionDelay);
+        out.writeByte(action == null ? -1 : action.ordinal());
+        out.writeByte(enemyType == null ? -1 : enemyType.getId());
+        out.writeBoolean(currentWaveFinished);
+    }
+
+    /**
+     * Reads back the state written by writeState, reading forward through the source to the wave that was in
+     * progress. Sources cannot go back, so the wave must not have read past that wave already.
+     * @param in where to read the state from
+     * @param version the version of the snapshot the state is in
+     * @throws IOException when the state cannot be read or the source does not have that many waves
+     */
+    public void readState(DataInput in, int version) throws IOException {
+        int target = in.readInt();
+        if (target < wavesRead){
+            throw new IOException("Wave has already read " + wavesRead + " waves, past wave " + target);
+        }
+        while (wavesRead < target){
+            if (!source.hasNextWave()){
+                throw new IOException("Wave file ends before wave " + target);
+            }
+            source.nextWave(waveInProgress);
+            wavesRead++;
+        }
+        cursor = in.readInt();
+        waveNumber = in.readInt();
+        numberToSpawn = in.readInt();
+        actionDelay = in.readInt();
+        int actionCode = in.readByte();
+        action = actionCode < 0 ? null : WaveAction.values()[actionCode];
+        int typeCode = in.readByte();
+        if (typeCode >= Archetypes.standard().getEnemies().size()){
+            throw new IOException("Unknown enemy type " + typeCode);
+        }
+        enemyType = typeCode < 0 ? null : Archetypes.standard().getEnemy(typeCode);
+        currentWaveFinished = in.readBoolean();
+        if (cursor > waveInProgress.size()){
+            throw new IOException("Wave cursor " + cursor + " is past the end of wave " + target);
+        }
+    }
+
     /**
      * Sets the variables of the wave given the current action
      */
     public void processWave(){
-        if (!waveInProgress.isEmpty()){
+        if (cursor < waveInProgress.size()){
             currentWaveFinished = false;
-            String[] currentWave = waveInProgress.get(0);
-            if (currentWave[1].equals("delay")){
-                waveNumber = Integer.parseInt(currentWave[0]);
-                action = currentWave[1];
-                numberToSpawn = -1;
-                actionDelay = Integer.parseInt(currentWave[2]);
+            WaveEvent event = waveInProgress.get(cursor++);
+            waveNumber = event.getWaveNumber();
+            action = event.getAction();
+            actionDelay = event.getDelay();
+            if (action == WaveAction.SPAWN){
+                numberToSpawn = event.getCount();
+                enemyType = event.getEnemyType();
             }
-            if (currentWave[1].equals("spawn")){
-                waveNumber = Integer.parseInt(currentWave[0]);
-                action = currentWave[1];
-                numberToSpawn = Integer.parseInt(currentWave[2]);
-                enemyType = currentWave[3];
-                actionDelay = Integer.parseInt(currentWave[4]);
+            else{
+                numberToSpawn = DELAY_SPAWNS;
             }
-            waveInProgress.remove(0);
         }
         else{
             numberToSpawn = 0;
@@ -99,16 +143,33 @@ public class Wave {
      * @return true if no more waves to be processed
      */
     public boolean allWavesFinished(){
-        return waves.isEmpty() && currentWaveFinished;
+        return !source.hasNextWave() && currentWaveFinished;
+    }
+
+    /**
+     * Checks if the wave in progress is the last one in the source
+     * @return true if there are no more waves to read after this one
+     */
+    public boolean isFinalWave(){
+        return !source.hasNextWave();
+    }
+
+    /**
+     * Closes the source of the wave, for when the level is discarded
+     * @throws IOException when the source cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        source.close();
     }
 
     /* Getters and setters */
 
     /**
-     * Returns a string representing the type of enemy to spawn
+     * Returns the type of enemy to spawn
      * @return the type of enemy to spawn
      */
-    public String getEnemyType() {
+    public EnemyArchetype getEnemyType() {
         return enemyType;
     }
 
@@ -137,18 +198,18 @@ public class Wave {
     }
 
     /**
-     * Returns a list of string arrays representing the current wave in progress and its wave events
-     * @return the current wave in progress and its wave events
+     * Returns a boolean value indicating whether the current wave has actions left after the current one
+     * @return true if the current wave has actions waiting to be processed
      */
-    public List<String[]> getWaveInProgress() {
-        return waveInProgress;
+    public boolean hasPendingActions() {
+        return cursor < waveInProgress.size();
     }
 
     /**
-     * Returns a string indicating the current wave action
+     * Returns the current wave action
      * @return the wave action
      */
-    public String getAction() {
+    public WaveAction getAction() {
         return action;
     }
 }
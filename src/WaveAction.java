@@ -0,0 +1,42 @@
+/**
+ * The actions a line of a wave file can perform
+ */
+public enum WaveAction {
+    SPAWN("spawn"),
+    DELAY("delay");
+
+    /* Attributes */
+    private final String name;
+
+    /**
+     * Creates a wave action
+     * @param name the name of the action in wave files
+     */
+    WaveAction(String name){
+        this.name = name;
+    }
+
+    /**
+     * Returns the action with the given name in wave files
+     * @param name the name of the action
+     * @return the action, null if there is no action with the name
+     */
+    public static WaveAction fromName(String name){
+        for (WaveAction action : values()){
+            if (action.name.equals(name)){
+                return action;
+            }
+        }
+        return null;
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the name of the action in wave files
+     * @return the name of the action
+     */
+    public String getName() {
+        return name;
+    }
+}
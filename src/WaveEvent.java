@@ -0,0 +1,80 @@
+/**
+ * One line of a wave file, compiled: a spawn of a number of enemies of one type, or a delay
+ */
+public final class WaveEvent {
+    /* Attributes */
+    private final int waveNumber;
+    private final WaveAction action;
+    private final EnemyArchetype enemyType;
+    private final int count;
+    private final int delay;
+    private final int lineNumber;
+
+    /**
+     * Creates a wave event
+     * @param waveNumber the wave the event belongs to
+     * @param action the action of the event
+     * @param enemyType the type of enemy to spawn, null for a delay
+     * @param count the number of enemies to spawn, 0 for a delay
+     * @param delay the number of frames between spawns, or the length of the delay
+     * @param lineNumber the line of the wave file the event was compiled from
+     */
+    public WaveEvent(int waveNumber, WaveAction action, EnemyArchetype enemyType, int count, int delay, int lineNumber){
+        this.waveNumber = waveNumber;
+        this.action = action;
+        this.enemyType = enemyType;
+        this.count = count;
+        this.delay = delay;
+        this.lineNumber = lineNumber;
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the wave the event belongs to
+     * @return the wave number
+     */
+    public int getWaveNumber() {
+        return waveNumber;
+    }
+
+    /**
+     * Returns the action of the event
+     * @return the action
+     */
+    public WaveAction getAction() {
+        return action;
+    }
+
+    /**
+     * Returns the type of enemy the event spawns
+     * @return the enemy type, null for a delay
+     */
+    public EnemyArchetype getEnemyType() {
+        return enemyType;
+    }
+
+    /**
+     * Returns the number of enemies the event spawns
+     * @return the number of enemies, 0 for a delay
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of frames between spawns, or the length of the delay
+     * @return the delay in frames
+     */
+    public int getDelay() {
+        return delay;
+    }
+
+    /**
+     * Returns the line of the wave file the event was compiled from
+     * @return the line number, counting from 1
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+}
@@ -0,0 +1,33 @@
+import java.io.IOException;
+
+/**
+ * Thrown when a line of a wave file cannot be compiled
+ */
+public class WaveFormatException extends IOException {
+    /* Constants */
+    private static final long serialVersionUID = 1L;
+
+    /* Attributes */
+    private final int lineNumber;
+
+    /**
+     * Creates an exception for a bad line of a wave file
+     * @param source the path of the wave file
+     * @param lineNumber the line that could not be compiled, counting from 1
+     * @param message what is wrong with the line
+     */
+    public WaveFormatException(String source, int lineNumber, String message){
+        super(source + ":" + lineNumber + ": " + message);
+        this.lineNumber = lineNumber;
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the line of the wave file that could not be compiled
+     * @return the line number, counting from 1
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+}
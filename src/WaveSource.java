@@ -0,0 +1,24 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Where a Wave gets its events from, one wave at a time
+ */
+public interface WaveSource extends Closeable {
+
+    /**
+     * Reads the events of the next wave
+     * @param events the list to fill with the events of the wave, cleared first
+     * @return false if there are no waves left
+     * @throws IOException when the wave script cannot be read or is not valid
+     */
+    boolean nextWave(List<WaveEvent> events) throws IOException;
+
+    /**
+     * Returns whether there is a wave after the ones already read
+     * @return true if nextWave will return another wave
+     */
+    boolean hasNextWave();
+
+}
@@ -0,0 +1,122 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Reads a wave file lazily through a fixed size buffer on a file channel, compiling each line as it is reached. Only
+ * the wave being read and the first event of the wave after it are held, so memory use and start up time do not
+ * depend on how long the file is. The channel is closed as soon as the end of the file is reached.
+ */
+public class WaveStream implements WaveSource {
+    /* Constants */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /* Attributes */
+    private final String filePath;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final StringBuilder line = new StringBuilder();
+    private int lineNumber;
+    private boolean endOfFile;
+    private WaveEvent lookahead;
+
+    /**
+     * Opens a wave file and reads its first event
+     * @param filePath path to the wave file
+     * @throws IOException when the wave file cannot be opened or its first line is not valid
+     */
+    public WaveStream(String filePath) throws IOException {
+        this.filePath = filePath;
+        channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        buffer.flip();
+        lookahead = readEvent();
+    }
+
+    @Override
+    public boolean nextWave(List<WaveEvent> events) throws IOException {
+        events.clear();
+        if (lookahead == null){
+            return false;
+        }
+        int waveNumber = lookahead.getWaveNumber();
+        while (lookahead != null && lookahead.getWaveNumber() == waveNumber){
+            events.add(lookahead);
+            lookahead = readEvent();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean hasNextWave() {
+        return lookahead != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Compiles the next line of the file that is not blank
+     * @return the event, null at the end of the file
+     * @throws IOException when the file cannot be read or the line is not valid
+     */
+    private WaveEvent readEvent() throws IOException {
+        while (readLine()){
+            if (line.length() > 0){
+                return WaveTimeline.compileLine(line.toString(), filePath, lineNumber);
+            }
+        }
+        close();
+        return null;
+    }
+
+    /**
+     * Reads the next line of the file into the line buffer, without its line ending and surrounding spaces
+     * @return false at the end of the file
+     * @throws IOException when the file cannot be read
+     */
+    private boolean readLine() throws IOException {
+        line.setLength(0);
+        if (endOfFile && !buffer.hasRemaining()){
+            return false;
+        }
+        lineNumber++;
+        while (true){
+            while (buffer.hasRemaining()){
+                char c = (char) (buffer.get() & 0xff);
+                if (c == '\n'){
+                    trimLine();
+                    return true;
+                }
+                line.append(c);
+            }
+            if (endOfFile){
+                trimLine();
+                return true;
+            }
+            buffer.clear();
+            endOfFile = channel.read(buffer) < 0;
+            buffer.flip();
+        }
+    }
+
+    /**
+     * Strips the carriage return and spaces from the ends of the line buffer
+     */
+    private void trimLine(){
+        int end = line.length();
+        while (end > 0 && line.charAt(end - 1) <= ' '){
+            end--;
+        }
+        line.setLength(end);
+        int start = 0;
+        while (start < line.length() && line.charAt(start) <= ' '){
+            start++;
+        }
+        line.delete(0, start);
+    }
+}
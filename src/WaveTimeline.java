@@ -0,0 +1,197 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A wave file compiled into an immutable list of wave events. Consecutive events with the same wave number make up one
+ * wave, and the end of the wave each event belongs to is worked out once so a Wave can walk the timeline with a cursor.
+ * The whole file is held in memory; WaveStream reads very large files a wave at a time instead.
+ */
+public final class WaveTimeline {
+    /* Constants */
+    private static final int WAVE_NUMBER = 0;
+    private static final int ACTION = 1;
+    private static final int DELAY_LENGTH = 2;
+    private static final int SPAWN_COUNT = 2;
+    private static final int SPAWN_TYPE = 3;
+    private static final int SPAWN_DELAY = 4;
+
+    /* Attributes */
+    private final WaveEvent[] events;
+    private final int[] waveEnds;
+
+    /**
+     * Creates a timeline from compiled events
+     * @param events the events in the order they happen
+     */
+    public WaveTimeline(List<WaveEvent> events){
+        this.events = events.toArray(new WaveEvent[0]);
+        waveEnds = new int[this.events.length];
+        int end = this.events.length;
+        for (int i = this.events.length - 1; i >= 0; i--){
+            if (i + 1 < this.events.length && this.events[i].getWaveNumber() != this.events[i + 1].getWaveNumber()){
+                end = i + 1;
+            }
+            waveEnds[i] = end;
+        }
+    }
+
+    /**
+     * Compiles a wave file. Blank lines are skipped.
+     * @param filePath path to the wave file
+     * @return the timeline
+     * @throws IOException when the wave file cannot be read
+     * @throws WaveFormatException when a line of the wave file is not a valid spawn or delay
+     */
+    public static WaveTimeline compile(String filePath) throws IOException {
+        List<WaveEvent> events = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))){
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null){
+                lineNumber++;
+                if (!line.trim().isEmpty()){
+                    events.add(compileLine(line, filePath, lineNumber));
+                }
+            }
+        }
+        return new WaveTimeline(events);
+    }
+
+    /**
+     * Compiles one line of a wave file
+     * @param line the line
+     * @param source the path of the wave file, for error messages
+     * @param lineNumber the number of the line, counting from 1
+     * @return the wave event
+     * @throws WaveFormatException when the line is not a valid spawn or delay
+     */
+    public static WaveEvent compileLine(String line, String source, int lineNumber) throws WaveFormatException {
+        String[] fields = line.trim().split(",");
+        if (fields.length < 2){
+            throw new WaveFormatException(source, lineNumber, "expected wave number and action in '" + line + "'");
+        }
+        int waveNumber = parseNumber(fields[WAVE_NUMBER], "wave number", source, lineNumber);
+        WaveAction action = WaveAction.fromName(fields[ACTION].trim());
+        if (action == null){
+            throw new WaveFormatException(source, lineNumber, "unknown action '" + fields[ACTION] + "'");
+        }
+        switch (action){
+            case SPAWN:
+                checkFieldCount(fields, SPAWN_DELAY + 1, action, source, lineNumber);
+                EnemyArchetype type = Archetypes.standard().findEnemy(fields[SPAWN_TYPE].trim());
+                if (type == null){
+                    throw new WaveFormatException(source, lineNumber, "unknown enemy type '" + fields[SPAWN_TYPE] + "'");
+                }
+                return new WaveEvent(waveNumber, action, type,
+                        parseNumber(fields[SPAWN_COUNT], "spawn count", source, lineNumber),
+                        parseNumber(fields[SPAWN_DELAY], "spawn delay", source, lineNumber), lineNumber);
+            default:
+                checkFieldCount(fields, DELAY_LENGTH + 1, action, source, lineNumber);
+                return new WaveEvent(waveNumber, action, null, 0,
+                        parseNumber(fields[DELAY_LENGTH], "delay", source, lineNumber), lineNumber);
+        }
+    }
+
+    /**
+     * Checks a line has the number of fields its action needs
+     * @param fields the fields of the line
+     * @param expected the number of fields the action needs
+     * @param action the action of the line
+     * @param source the path of the wave file, for error messages
+     * @param lineNumber the number of the line
+     * @throws WaveFormatException when the number of fields is wrong
+     */
+    private static void checkFieldCount(String[] fields, int expected, WaveAction action, String source,
+                                        int lineNumber) throws WaveFormatException {
+        if (fields.length != expected){
+            throw new WaveFormatException(source, lineNumber, "a " + action.getName() + " needs " + expected
+                    + " fields but has " + fields.length);
+        }
+    }
+
+    /**
+     * Parses a non-negative whole number field
+     * @param field the field
+     * @param name what the field is, for error messages
+     * @param source the path of the wave file, for error messages
+     * @param lineNumber the number of the line
+     * @return the number
+     * @throws WaveFormatException when the field is not a non-negative whole number
+     */
+    private static int parseNumber(String field, String name, String source, int lineNumber)
+            throws WaveFormatException {
+        try {
+            int number = Integer.parseInt(field.trim());
+            if (number >= 0){
+                return number;
+            }
+        } catch (NumberFormatException ignored) {
+            // Reported below
+        }
+        throw new WaveFormatException(source, lineNumber, "bad " + name + " '" + field + "'");
+    }
+
+    /**
+     * Returns a source that walks the timeline from the start, for a Wave to play
+     * @return the wave source
+     */
+    public WaveSource open(){
+        return new WaveSource() {
+            private int cursor;
+
+            @Override
+            public boolean nextWave(List<WaveEvent> waveEvents) {
+                waveEvents.clear();
+                if (cursor >= events.length){
+                    return false;
+                }
+                int end = waveEnds[cursor];
+                while (cursor < end){
+                    waveEvents.add(events[cursor++]);
+                }
+                return true;
+            }
+
+            @Override
+            public boolean hasNextWave() {
+                return cursor < events.length;
+            }
+
+            @Override
+            public void close() {
+                // Nothing to close, the timeline is in memory
+            }
+        };
+    }
+
+    /* Getters and setters */
+
+    /**
+     * Returns the number of events in the timeline
+     * @return the number of events
+     */
+    public int size() {
+        return events.length;
+    }
+
+    /**
+     * Returns an event of the timeline
+     * @param index the index of the event
+     * @return the event
+     */
+    public WaveEvent get(int index) {
+        return events[index];
+    }
+
+    /**
+     * Returns where the wave an event belongs to ends
+     * @param index the index of the event
+     * @return the index after the last event of the wave
+     */
+    public int getWaveEnd(int index) {
+        return waveEnds[index];
+    }
+}